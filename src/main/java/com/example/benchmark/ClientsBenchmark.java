@@ -1,35 +1,30 @@
 package com.example.benchmark;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Future;
-import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
+import com.example.benchmark.harness.BenchmarkClientState;
+import com.example.benchmark.harness.CompletionMode;
+import com.example.benchmark.harness.ProducerState;
 import com.example.client.AdaptedClient;
 import com.example.client.ClientAdapter;
 import com.example.client.ClientConfiguration;
-import com.example.client.model.ClientRequest;
 import com.example.client.model.ClientResponse;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Fork;
-import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
 import org.openjdk.jmh.annotations.Param;
-import org.openjdk.jmh.annotations.Scope;
-import org.openjdk.jmh.annotations.Setup;
-import org.openjdk.jmh.annotations.State;
-import org.openjdk.jmh.annotations.TearDown;
 import org.openjdk.jmh.annotations.Threads;
 import org.openjdk.jmh.annotations.Warmup;
 
-@SuppressWarnings("Duplicates")
+/**
+ * Producer threads count is set with {@code -t}, or swept with
+ * {@link com.example.benchmark.harness.ProducersRunner} (e.g. {@code 1,2,3,4}).
+ * {@code prepared} compares request mapped per send with the one prepared once
+ * by {@link ClientAdapter#prepare}, run with {@code -prof gc} to see allocation difference.
+ */
 @BenchmarkMode(Mode.Throughput)
 @OutputTimeUnit(TimeUnit.MILLISECONDS)
 @Fork(1)
@@ -37,16 +32,15 @@ import org.openjdk.jmh.annotations.Warmup;
 @Measurement(iterations = 16, time = 30)
 public class ClientsBenchmark {
 
-    private static final String URL = Utils.SERVER_URL;
-
-    @State(Scope.Benchmark)
-    public static class ClientState {
+    public static class ClientState extends BenchmarkClientState {
 
         @Param(value = {
                 "BASELINE_CLIENT",
                 "JAVA_CLIENT",
                 "ASYNC_CLIENT",
                 "APACHE_CLIENT",
+                "JETTY_CLIENT",
+                "RAW_NIO_CLIENT",
         })
         private String clientName;
         @Param(value = {
@@ -67,161 +61,55 @@ public class ClientsBenchmark {
 //                "524288",
         })
         private int bodySize;
-
-        private ClientAdapter<?, ?> client;
-        private byte[] body;
-
-        @Setup(Level.Trial)
-        public void setup() {
-            client = AdaptedClient.create(clientName, new ClientConfiguration(ioThreads));
-            if (bodySize == 0) {
-                body = null;
-            } else {
-                body = new byte[bodySize];
-                ThreadLocalRandom.current().nextBytes(body);
-            }
-        }
-
-        @TearDown(Level.Trial)
-        public void tearDown() throws Exception {
-            client.shutdown();
-            client = null;
-            body = null;
-        }
-
-        public ClientAdapter<?, ?> getClient() {
-            return client;
-        }
-
-        public byte[] getBody() {
-            return body;
-        }
-    }
-
-    @State(Scope.Thread)
-    public static class CommonThreadState {
-
-        public int getProducerThreads() {
-            throw new IllegalStateException("Must be defined by subclass");
-        }
-
         @Param(value = {
-                "256",
+                "false",
+                "true",
         })
-        private int parallelism;
-
-        private List<Future<?>> futures;
+        private boolean prepared;
 
-        @Setup(Level.Iteration)
-        public void setup() {
-            final int futuresSize = parallelism / getProducerThreads();
-            if (futuresSize <= 0) {
-                throw new IllegalStateException("Future size must be positive, but found " + futuresSize);
-            }
-            futures = IntStream.range(0, parallelism / getProducerThreads())
-                    .mapToObj(__ -> (CompletableFuture<?>) null)
-                    .collect(Collectors.toCollection(ArrayList::new));
+        @Override
+        protected ClientAdapter<?, ?> createClient() {
+            return AdaptedClient.create(clientName, new ClientConfiguration(ioThreads));
         }
 
-        public List<Future<?>> getFutures() {
-            return futures;
-        }
-    }
-
-    private ClientResponse iteration(final ClientState clientState,
-                                     final CommonThreadState threadState) throws Exception {
-        final var client = clientState.getClient();
-        final var futures = threadState.getFutures();
-
-        while (true) {
-            for (int i = 0; i < futures.size(); ++i) {
-                final var future = futures.get(i);
-                if (future != null && !future.isDone()) {
-                    continue;
-                }
-
-                final byte[] body = clientState.getBody();
-                final Object request = client.mapRequest(new ClientRequest(URL, body));
-                futures.set(i, client.sendUnchecked(request));
-
-                if (future != null) {
-                    try {
-                        return client.mapResponseUnchecked(future.get());
-                    } catch (Exception e) {
-                        System.err.println(
-                                "Got exception, class = '" + e.getClass().getName() + "', message = '" + e.getMessage() + "'"
-                        );
-                    }
-                }
-            }
-        }
-    }
-
-
-    // 1 thread-producer
-
-    public static class ThreadState_Producer_1 extends CommonThreadState {
         @Override
-        public int getProducerThreads() {
-            return 1;
+        protected int getBodySize() {
+            return bodySize;
         }
-    }
 
-    @Benchmark
-    @Threads(1)
-    public ClientResponse benchmark_producer_1(final ClientState clientState,
-                                               final ThreadState_Producer_1 threadState) throws Exception {
-        return iteration(clientState, threadState);
-    }
-
-
-    // 2 threads-producers
-
-    public static class ThreadState_Producer_2 extends CommonThreadState {
         @Override
-        public int getProducerThreads() {
-            return 2;
+        protected boolean isPrepared() {
+            return prepared;
         }
     }
 
-    @Benchmark
-    @Threads(2)
-    public ClientResponse benchmark_producer_2(final ClientState clientState,
-                                               final ThreadState_Producer_2 threadState) throws Exception {
-        return iteration(clientState, threadState);
-    }
-
+    public static class ThreadState extends ProducerState {
 
-    // 3 threads-producers
+        @Param(value = {
+                "256",
+        })
+        private int parallelism;
+        @Param(value = {
+                "POLLING",
+                "CALLBACK",
+        })
+        private String completionMode;
 
-    public static class ThreadState_Producer_3 extends CommonThreadState {
         @Override
-        public int getProducerThreads() {
-            return 3;
+        protected int getParallelism() {
+            return parallelism;
         }
-    }
 
-    @Benchmark
-    @Threads(3)
-    public ClientResponse benchmark_producer_3(final ClientState clientState,
-                                               final ThreadState_Producer_3 threadState) throws Exception {
-        return iteration(clientState, threadState);
-    }
-
-
-    // 4 threads-producers
-
-    public static class ThreadState_Producer_4 extends CommonThreadState {
         @Override
-        public int getProducerThreads() {
-            return 4;
+        protected CompletionMode getCompletionMode() {
+            return CompletionMode.valueOf(completionMode);
         }
     }
 
     @Benchmark
-    @Threads(4)
-    public ClientResponse benchmark_producer_4(final ClientState clientState,
-                                               final ThreadState_Producer_4 threadState) throws Exception {
-        return iteration(clientState, threadState);
+    @Threads(1)
+    public ClientResponse benchmark(final ClientState clientState,
+                                    final ThreadState threadState) throws Exception {
+        return threadState.next(clientState);
     }
 }
@@ -1,15 +1,71 @@
 package com.example.benchmark;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import com.example.server.EmbeddedHttpServer;
+
 public class Utils {
 
     private Utils() {
         throw new IllegalStateException();
     }
 
+    private static final String PATH = "/do_request";
+    private static final String NGINX_URL = System.getProperty("nginx_url");
+    private static final EmbeddedHttpServer SERVER;
+
     public static final String SERVER_URL;
 
     static {
-        final var url = System.getProperty("nginx_url", "localhost");
-        SERVER_URL = "http://" + url + "/do_request";
+        final String address;
+        if (NGINX_URL != null) {
+            SERVER = null;
+            address = NGINX_URL;
+        } else {
+            SERVER = startEmbeddedServer();
+            address = SERVER.getAddress();
+        }
+        SERVER_URL = "http://" + address + PATH;
+    }
+
+    /**
+     * Starts in-process server on ephemeral port, it lives until benchmark fork exits.
+     * Configured with {@code -Dserver_workers} (default is available processors count)
+     * and {@code -Dserver_response_size} (default is {@code You are welcome} body).
+     */
+    public static EmbeddedHttpServer startEmbeddedServer() {
+        return new EmbeddedHttpServer(
+                Integer.getInteger("server_workers", Runtime.getRuntime().availableProcessors()),
+                Integer.getInteger("server_response_size", EmbeddedHttpServer.DEFAULT_RESPONSE_SIZE)
+        );
+    }
+
+    /**
+     * Urls of {@code routes} distinct server ports, the first one is {@link #SERVER_URL}.
+     * Embedded server opens missing ports on demand, with {@code -Dnginx_url=<host>:<port>}
+     * nginx must listen on {@code routes} consecutive ports starting from {@code <port>}.
+     */
+    public static List<String> serverUrls(final int routes) {
+        if (routes <= 0) {
+            throw new IllegalArgumentException("Routes count must be positive, but found " + routes);
+        }
+        if (routes == 1) {
+            return List.of(SERVER_URL);
+        }
+        final var urls = new ArrayList<String>(routes);
+        if (SERVER != null) {
+            for (final var address : SERVER.listen(routes)) {
+                urls.add("http://" + address + PATH);
+            }
+            return urls;
+        }
+        final int colon = NGINX_URL.lastIndexOf(':');
+        final String host = colon < 0 ? NGINX_URL : NGINX_URL.substring(0, colon);
+        final int port = colon < 0 ? 80 : Integer.parseInt(NGINX_URL.substring(colon + 1));
+        for (int i = 0; i < routes; ++i) {
+            urls.add("http://" + host + ":" + (port + i) + PATH);
+        }
+        return urls;
     }
 }
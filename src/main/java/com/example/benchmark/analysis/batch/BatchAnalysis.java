@@ -0,0 +1,178 @@
+package com.example.benchmark.analysis.batch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import com.example.benchmark.harness.BenchmarkClientState;
+import com.example.benchmark.harness.ProducersRunner;
+import com.example.benchmark.utils.latency.LatencyHistogram;
+import com.example.benchmark.utils.latency.LatencyRecorder;
+import com.example.client.AdaptedClient;
+import com.example.client.BatchPolicy;
+import com.example.client.BatchResult;
+import com.example.client.ClientAdapter;
+import com.example.client.ClientConfiguration;
+import com.example.mistakes.Example_03_BatchSingleThread;
+import com.example.mistakes.Example_04_BatchMultipleThreads;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+/**
+ * {@link Example_03_BatchSingleThread} and {@link Example_04_BatchMultipleThreads}
+ * on top of {@link ClientAdapter#sendAll} for every client.
+ * <p>
+ * Single producer thread by default, threads count of multiple threads example is set with {@code -t}
+ * or swept with {@link ProducersRunner} (e.g. {@code 2,4,8,16}).
+ * Every invocation waits for the whole batch, so score counts completed exchanges
+ * and in-flight load stays bounded by batch size per thread.
+ * Time until {@code policy} is satisfied (earlier than the whole batch with {@code QUORUM} and {@code FIRST_ONE})
+ * is recorded into {@link LatencyRecorder}, run with {@code -prof com.example.profiler.LatencyProfiler} to see it.
+ * Batches which failed to satisfy {@code policy} are counted and reported once per iteration.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 4, time = 30)
+@Measurement(iterations = 16, time = 30)
+public class BatchAnalysis {
+
+    public enum Policy {
+        ALL(BatchPolicy.all()),
+        QUORUM(BatchPolicy.quorum()),
+        FIRST_ONE(BatchPolicy.first(1)),
+        ;
+
+        private final BatchPolicy policy;
+
+        Policy(final BatchPolicy policy) {
+            this.policy = policy;
+        }
+    }
+
+    public static class ClientState extends BenchmarkClientState {
+
+        @Param(value = {
+                "BASELINE_CLIENT",
+                "JAVA_CLIENT",
+                "ASYNC_CLIENT",
+                "APACHE_CLIENT",
+                "JETTY_CLIENT",
+                "RAW_NIO_CLIENT",
+        })
+        private String clientName;
+        @Param(value = {
+                "8",
+        })
+        private int ioThreads;
+
+        @Override
+        protected ClientAdapter<?, ?> createClient() {
+            return AdaptedClient.create(clientName, new ClientConfiguration(ioThreads));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+
+        @Param(value = {
+                "ALL",
+                "QUORUM",
+                "FIRST_ONE",
+        })
+        private String policy;
+        @Param(value = {
+                "0",
+        })
+        private int producers;
+
+        private final List<Object> requests = new ArrayList<>();
+        private BatchPolicy batchPolicy;
+        private LatencyHistogram policyLatencies;
+        private long errors;
+        private Throwable firstError;
+
+        @Setup(Level.Trial)
+        public void setup(final BenchmarkParams benchmarkParams) {
+            ProducersRunner.checkProducers(producers, benchmarkParams);
+            batchPolicy = Policy.valueOf(policy).policy;
+            policyLatencies = LatencyRecorder.local();
+        }
+
+        @TearDown(Level.Iteration)
+        public void reportErrors() {
+            if (errors != 0) {
+                System.err.println(
+                        "Got " + errors + " failed batches during iteration, first one is class = '"
+                                + firstError.getClass().getName() + "', message = '" + firstError.getMessage() + "'"
+                );
+            }
+            errors = 0;
+            firstError = null;
+        }
+
+        private BatchResult<?> send(final ClientState clientState, final int batchSize) throws Exception {
+            requests.clear();
+            for (int i = 0; i < batchSize; ++i) {
+                requests.add(clientState.newRequest());
+            }
+            final long start = System.nanoTime();
+            final var batch = clientState.getClient().sendAllUnchecked(requests, batchPolicy);
+            BatchResult<?> result = null;
+            try {
+                result = batch.get();
+                policyLatencies.record(System.nanoTime() - start);
+            } catch (final ExecutionException e) {
+                // policy can't be met anymore, the rest of the batch is still awaited below
+                if (errors++ == 0) {
+                    firstError = e.getCause();
+                }
+            }
+            // responses left after policy completion are counted by @OperationsPerInvocation too
+            batch.settled().get();
+            return result;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(4)
+    public BatchResult<?> batch_4(final ClientState clientState,
+                                  final ThreadState threadState) throws Exception {
+        return threadState.send(clientState, 4);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(16)
+    public BatchResult<?> batch_16(final ClientState clientState,
+                                   final ThreadState threadState) throws Exception {
+        return threadState.send(clientState, 16);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(64)
+    public BatchResult<?> batch_64(final ClientState clientState,
+                                   final ThreadState threadState) throws Exception {
+        return threadState.send(clientState, 64);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(256)
+    public BatchResult<?> batch_256(final ClientState clientState,
+                                    final ThreadState threadState) throws Exception {
+        return threadState.send(clientState, 256);
+    }
+}
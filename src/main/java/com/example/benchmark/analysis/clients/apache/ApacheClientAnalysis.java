@@ -1,38 +1,29 @@
 package com.example.benchmark.analysis.clients.apache;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Future;
-import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
-import com.example.benchmark.Utils;
+import com.example.benchmark.harness.BenchmarkClientState;
+import com.example.benchmark.harness.ProducerState;
 import com.example.client.AdaptedClient;
 import com.example.client.ClientAdapter;
 import com.example.client.ClientConfiguration;
 import com.example.client.impl.ApacheClientAdapter;
-import com.example.client.model.ClientRequest;
 import com.example.client.model.ClientResponse;
 import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Fork;
-import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
 import org.openjdk.jmh.annotations.Param;
-import org.openjdk.jmh.annotations.Scope;
-import org.openjdk.jmh.annotations.Setup;
-import org.openjdk.jmh.annotations.State;
-import org.openjdk.jmh.annotations.TearDown;
 import org.openjdk.jmh.annotations.Threads;
 import org.openjdk.jmh.annotations.Warmup;
 
-@SuppressWarnings("Duplicates")
+/**
+ * Producer threads count is set with {@code -t} (1 and 2 are of interest),
+ * or swept with {@link com.example.benchmark.harness.ProducersRunner}.
+ */
 @BenchmarkMode(Mode.Throughput)
 @OutputTimeUnit(TimeUnit.MILLISECONDS)
 @Fork(1)
@@ -40,10 +31,7 @@ import org.openjdk.jmh.annotations.Warmup;
 @Measurement(iterations = 4, time = 30)
 public class ApacheClientAnalysis {
 
-    private static final String URL = Utils.SERVER_URL;
-
-    @State(Scope.Benchmark)
-    public static class ClientState {
+    public static class ClientState extends BenchmarkClientState {
 
         @Param(value = {
                 "APACHE_CLIENT",
@@ -74,163 +62,37 @@ public class ApacheClientAnalysis {
         })
         private int bodySize;
 
-        private ClientAdapter<?, ?> client;
-        private byte[] body;
-
-        @Setup(Level.Trial)
-        public void setup() {
+        @Override
+        protected ClientAdapter<?, ?> createClient() {
             if (!AdaptedClient.APACHE_CLIENT.name().equals(clientName)) {
                 throw new IllegalArgumentException("Wrong client name + '" + clientName + "'");
             }
-            client = new ApacheClientAdapter(new ClientConfiguration(ioThreads), PoolConcurrencyPolicy.valueOf(poolPolicy));
-            if (bodySize == 0) {
-                body = null;
-            } else {
-                body = new byte[bodySize];
-                ThreadLocalRandom.current().nextBytes(body);
-            }
+            return new ApacheClientAdapter(new ClientConfiguration(ioThreads), PoolConcurrencyPolicy.valueOf(poolPolicy));
         }
 
-        @TearDown(Level.Trial)
-        public void tearDown() throws Exception {
-            client.shutdown();
-            client = null;
-            body = null;
-        }
-
-        public ClientAdapter<?, ?> getClient() {
-            return client;
-        }
-
-        public byte[] getBody() {
-            return body;
+        @Override
+        protected int getBodySize() {
+            return bodySize;
         }
     }
 
-    @State(Scope.Thread)
-    public static class CommonThreadState {
-
-        public int getProducerThreads() {
-            throw new IllegalStateException("Must be defined by subclass");
-        }
+    public static class ThreadState extends ProducerState {
 
         @Param(value = {
                 "256",
         })
         private int parallelism;
 
-        private List<Future<?>> futures;
-
-        @Setup(Level.Iteration)
-        public void setup() {
-            final int futuresSize = parallelism / getProducerThreads();
-            if (futuresSize <= 0) {
-                throw new IllegalStateException("Future size must be positive, but found " + futuresSize);
-            }
-            futures = IntStream.range(0, parallelism / getProducerThreads())
-                    .mapToObj(__ -> (CompletableFuture<?>) null)
-                    .collect(Collectors.toCollection(ArrayList::new));
-        }
-
-        public List<Future<?>> getFutures() {
-            return futures;
-        }
-    }
-
-    private ClientResponse iteration(final ClientState clientState,
-                                     final CommonThreadState threadState) throws Exception {
-        final var client = clientState.getClient();
-        final var futures = threadState.getFutures();
-
-        while (true) {
-            for (int i = 0; i < futures.size(); ++i) {
-                final var future = futures.get(i);
-                if (future != null && !future.isDone()) {
-                    continue;
-                }
-
-                final byte[] body = clientState.getBody();
-                final Object request = client.mapRequest(new ClientRequest(URL, body));
-                futures.set(i, client.sendUnchecked(request));
-
-                if (future != null) {
-                    try {
-                        return client.mapResponseUnchecked(future.get());
-                    } catch (Exception e) {
-                        System.err.println(
-                                "Got exception, class = '" + e.getClass().getName() + "', message = '" + e.getMessage() + "'"
-                        );
-                    }
-                }
-            }
-        }
-    }
-
-
-    // 1 thread-producer
-
-    public static class ThreadState_Producer_1 extends CommonThreadState {
         @Override
-        public int getProducerThreads() {
-            return 1;
+        protected int getParallelism() {
+            return parallelism;
         }
     }
 
     @Benchmark
     @Threads(1)
-    public ClientResponse benchmark_producer_1(final ClientState clientState,
-                                               final ThreadState_Producer_1 threadState) throws Exception {
-        return iteration(clientState, threadState);
-    }
-
-
-    // 2 threads-producers
-
-    public static class ThreadState_Producer_2 extends CommonThreadState {
-        @Override
-        public int getProducerThreads() {
-            return 2;
-        }
-    }
-
-    @Benchmark
-    @Threads(2)
-    public ClientResponse benchmark_producer_2(final ClientState clientState,
-                                               final ThreadState_Producer_2 threadState) throws Exception {
-        return iteration(clientState, threadState);
+    public ClientResponse benchmark(final ClientState clientState,
+                                    final ThreadState threadState) throws Exception {
+        return threadState.next(clientState);
     }
-//
-//
-//    // 3 threads-producers
-//
-//    public static class ThreadState_Producer_3 extends CommonThreadState {
-//        @Override
-//        public int getProducerThreads() {
-//            return 3;
-//        }
-//    }
-//
-//    @Benchmark
-//    @Threads(3)
-//    public ClientResponse benchmark_producer_3(final ClientState clientState,
-//                                               final ThreadState_Producer_3 threadState) throws Exception {
-//        return iteration(clientState, threadState);
-//    }
-//
-//
-//    // 4 threads-producers
-//
-//    public static class ThreadState_Producer_4 extends CommonThreadState {
-//        @Override
-//        public int getProducerThreads() {
-//            return 4;
-//        }
-//    }
-//
-//    @Benchmark
-//    @Threads(4)
-//    public ClientResponse benchmark_producer_4(final ClientState clientState,
-//                                               final ThreadState_Producer_4 threadState) throws Exception {
-//        return iteration(clientState, threadState);
-//    }
 }
@@ -0,0 +1,123 @@
+package com.example.benchmark.analysis.clients.jetty;
+
+import java.util.concurrent.TimeUnit;
+
+import com.example.benchmark.harness.BenchmarkClientState;
+import com.example.benchmark.harness.ProducerState;
+import com.example.client.AdaptedClient;
+import com.example.client.ClientAdapter;
+import com.example.client.ClientConfiguration;
+import com.example.client.ConnectionPoolType;
+import com.example.client.impl.JettyClientAdapter;
+import com.example.client.model.ClientResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Producer threads count is set with {@code -t},
+ * or swept with {@link com.example.benchmark.harness.ProducersRunner}.
+ * Connections per destination are limited to {@code parallelism},
+ * {@code ROUND_ROBIN} pool would open a connection per request otherwise.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 30)
+@Measurement(iterations = 4, time = 30)
+public class JettyClientAnalysis {
+
+    public static class ClientState extends BenchmarkClientState {
+
+        @Param(value = {
+                "JETTY_CLIENT",
+        })
+        private String clientName;
+        @Param(value = {
+                "1",
+                "2",
+                "4",
+        })
+        private int selectors;
+        @Param(value = {
+                "DUPLEX",
+                "MULTIPLEX",
+                "ROUND_ROBIN",
+                "RANDOM",
+        })
+        private String connectionPool;
+        @Param(value = {
+                "4096",
+        })
+        private int maxRequestsQueued;
+        @Param(value = {
+                "256",
+        })
+        private int maxConnectionsPerRoute;
+        @Param(value = {
+//                "2",
+                "4",
+//                "6",
+                "8",
+//                "10",
+//                "12",
+//                "16",
+        })
+        private int ioThreads;
+        @Param(value = {
+                "0",
+//                "2048",
+//                "8192",
+//                "32768",
+//                "131072",
+//                "524288",
+        })
+        private int bodySize;
+
+        @Override
+        protected ClientAdapter<?, ?> createClient() {
+            if (!AdaptedClient.JETTY_CLIENT.name().equals(clientName)) {
+                throw new IllegalArgumentException("Wrong client name + '" + clientName + "'");
+            }
+            return new JettyClientAdapter(
+                    ClientConfiguration.builder(ioThreads)
+                            .selectors(selectors)
+                            .maxConnectionsPerRoute(maxConnectionsPerRoute)
+                            .maxRequestsQueuedPerDestination(maxRequestsQueued)
+                            .connectionPoolType(ConnectionPoolType.valueOf(connectionPool))
+                            .build()
+            );
+        }
+
+        @Override
+        protected int getBodySize() {
+            return bodySize;
+        }
+    }
+
+    public static class ThreadState extends ProducerState {
+
+        @Param(value = {
+                "256",
+        })
+        private int parallelism;
+
+        @Override
+        protected int getParallelism() {
+            return parallelism;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public ClientResponse benchmark(final ClientState clientState,
+                                    final ThreadState threadState) throws Exception {
+        return threadState.next(clientState);
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.benchmark.analysis.load;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import com.example.benchmark.utils.latency.LatencyRecorder;
+import com.example.client.ClientAdapter;
+import com.example.client.ResponseCallback;
+
+/**
+ * Open-model request producer, owned by single benchmark thread.
+ * <p>
+ * Requests are scheduled at fixed intended start times ({@code start + n * period}),
+ * independent of completions of previous requests. If producer falls behind schedule
+ * requests are sent immediately, but latency is still measured from intended start time,
+ * so client stalls are accounted to every request which should have been sent during the stall
+ * (coordinated omission correction).
+ * <p>
+ * With {@code dispatcher} requests are sent by its threads with blocking calls, so requests arrived
+ * while all threads are busy wait in dispatcher work queue, rejected ones are counted separately from errors.
+ */
+class ArrivalRateProducer {
+
+    private static final long SPIN_THRESHOLD_NANOS = 50_000;
+
+    private final ClientAdapter<?, ?> client;
+    private final Supplier<Object> requestFactory;
+    private final long periodNanos;
+    private final Executor dispatcher;
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    private long startNanos;
+    private long scheduled;
+
+    ArrivalRateProducer(final ClientAdapter<?, ?> client,
+                        final Supplier<Object> requestFactory,
+                        final long periodNanos) {
+        this(client, requestFactory, periodNanos, null);
+    }
+
+    ArrivalRateProducer(final ClientAdapter<?, ?> client,
+                        final Supplier<Object> requestFactory,
+                        final long periodNanos,
+                        final Executor dispatcher) {
+        if (periodNanos <= 0) {
+            throw new IllegalStateException("Period must be positive, but found " + periodNanos);
+        }
+        this.client = client;
+        this.requestFactory = requestFactory;
+        this.periodNanos = periodNanos;
+        this.dispatcher = dispatcher;
+    }
+
+    static long periodNanos(final int targetRps, final int producerThreads) {
+        return 1_000_000_000L * producerThreads / targetRps;
+    }
+
+    void start() {
+        startNanos = System.nanoTime();
+        scheduled = 0;
+        errors.reset();
+        rejected.reset();
+    }
+
+    /**
+     * Waits for intended start time of the next request and sends it.
+     *
+     * @return how late request was sent relative to its intended start time, in nanoseconds
+     */
+    long sendNext() {
+        final long intendedStart = startNanos + scheduled++ * periodNanos;
+        awaitNanoTime(intendedStart);
+        final long now = System.nanoTime();
+        final var completion = new Completion(intendedStart);
+        try {
+            final Object request = requestFactory.get();
+            if (dispatcher == null) {
+                client.sendUnchecked(request, completion);
+            } else {
+                dispatcher.execute(() -> completion.exchange(request));
+            }
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+        } catch (Exception e) {
+            completion.failed(e);
+        }
+        return now - intendedStart;
+    }
+
+    long getErrors() {
+        return errors.sum();
+    }
+
+    long getRejected() {
+        return rejected.sum();
+    }
+
+    private static void awaitNanoTime(final long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            if (remaining > SPIN_THRESHOLD_NANOS) {
+                LockSupport.parkNanos(remaining - SPIN_THRESHOLD_NANOS);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    private final class Completion implements ResponseCallback<Object> {
+
+        private final long intendedStart;
+
+        private Completion(final long intendedStart) {
+            this.intendedStart = intendedStart;
+        }
+
+        private void exchange(final Object request) {
+            try {
+                completed(client.sendUnchecked(request).get());
+            } catch (Exception e) {
+                failed(e);
+            }
+        }
+
+        @Override
+        public void completed(final Object response) {
+            // completes on client or dispatcher threads, possibly a new virtual thread per request
+            LatencyRecorder.recordShared(System.nanoTime() - intendedStart);
+        }
+
+        @Override
+        public void failed(final Throwable error) {
+            errors.increment();
+        }
+    }
+}
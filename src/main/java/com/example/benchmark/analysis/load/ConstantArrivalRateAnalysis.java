@@ -0,0 +1,108 @@
+package com.example.benchmark.analysis.load;
+
+import java.util.concurrent.TimeUnit;
+
+import com.example.benchmark.harness.BenchmarkClientState;
+import com.example.client.AdaptedClient;
+import com.example.client.ClientAdapter;
+import com.example.client.ClientConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+/**
+ * Open-model load: requests arrive at fixed {@code targetRps}, regardless of how fast client completes them.
+ * <p>
+ * Primary score is the achieved send rate, it falls below target only if producer itself can't keep up.
+ * Latency is measured from intended send time, run with {@code -prof com.example.profiler.LatencyProfiler}
+ * to get coordinated-omission-corrected percentiles.
+ * Producer threads count is taken from {@code -t}, target rate is split evenly between them.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 30)
+@Measurement(iterations = 12, time = 20)
+public class ConstantArrivalRateAnalysis {
+
+    public static class ClientState extends BenchmarkClientState {
+
+        @Param(value = {
+//                "BASELINE_CLIENT",
+//                "JAVA_CLIENT",
+                "ASYNC_CLIENT",
+                "APACHE_CLIENT",
+                "JETTY_CLIENT",
+        })
+        private String clientName;
+        @Param(value = {
+                "8",
+        })
+        private int ioThreads;
+        @Param(value = {
+                "1000",
+                "10000",
+                "50000",
+        })
+        private int targetRps;
+
+        @Override
+        protected ClientAdapter<?, ?> createClient() {
+            return AdaptedClient.create(clientName, new ClientConfiguration(ioThreads));
+        }
+
+        public int getTargetRps() {
+            return targetRps;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+
+        private ArrivalRateProducer producer;
+
+        @Setup(Level.Trial)
+        public void setup(final ClientState clientState, final BenchmarkParams benchmarkParams) {
+            producer = new ArrivalRateProducer(
+                    clientState.getClient(),
+                    clientState::newRequest,
+                    ArrivalRateProducer.periodNanos(clientState.getTargetRps(), benchmarkParams.getThreads())
+            );
+        }
+
+        @Setup(Level.Iteration)
+        public void startIteration() {
+            producer.start();
+        }
+
+        @TearDown(Level.Iteration)
+        public void finishIteration() {
+            final long errors = producer.getErrors();
+            if (errors != 0) {
+                System.err.println("Got " + errors + " failed requests during iteration");
+            }
+        }
+
+        public ArrivalRateProducer getProducer() {
+            return producer;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long benchmark(final ThreadState threadState) {
+        return threadState.getProducer().sendNext();
+    }
+}
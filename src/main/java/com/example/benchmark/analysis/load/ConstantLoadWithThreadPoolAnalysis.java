@@ -10,12 +10,13 @@ import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
-import com.example.benchmark.Utils;
+import com.example.benchmark.harness.BenchmarkClientState;
+import com.example.benchmark.utils.latency.LatencyHistogram;
+import com.example.benchmark.utils.latency.LatencyRecorder;
 import com.example.client.AdaptedClient;
 import com.example.client.ClientAdapter;
 import com.example.client.ClientConfiguration;
 import com.example.client.impl.AsyncClientAdapter;
-import com.example.client.model.ClientRequest;
 import com.example.client.model.ClientResponse;
 import org.asynchttpclient.ListenableFuture;
 import org.openjdk.jmh.annotations.Benchmark;
@@ -40,10 +41,7 @@ import org.openjdk.jmh.annotations.Warmup;
 @Measurement(iterations = 12, time = 20)
 public class ConstantLoadWithThreadPoolAnalysis {
 
-    private static final String URL = Utils.SERVER_URL;
-
-    @State(Scope.Benchmark)
-    public static class ClientState {
+    public static class ClientState extends BenchmarkClientState {
 
         @Param(value = {
 //                "BASELINE_CLIENT",
@@ -68,30 +66,27 @@ public class ConstantLoadWithThreadPoolAnalysis {
         })
         private int producerThreads;
 
-        private AsyncClientAdapter client;
         private ExecutorService producerPool;
 
-        @Setup(Level.Trial)
-        public void setup() {
+        @Override
+        protected ClientAdapter<?, ?> createClient() {
             if (!AdaptedClient.ASYNC_CLIENT.name().equals(clientName)) {
                 throw new IllegalArgumentException("Wrong client name + '" + clientName + "'");
             }
-            client = new AsyncClientAdapter(new ClientConfiguration(ioThreads));
+            return new AsyncClientAdapter(new ClientConfiguration(ioThreads));
+        }
+
+        @Setup(Level.Trial)
+        public void setupProducerPool() {
             producerPool = Executors.newFixedThreadPool(producerThreads);
         }
 
         @TearDown(Level.Trial)
-        public void tearDown() throws Exception {
-            client.shutdown();
-            client = null;
+        public void tearDownProducerPool() {
             producerPool.shutdownNow();
             producerPool = null;
         }
 
-        public ClientAdapter<?, ?> getClient() {
-            return client;
-        }
-
         public ExecutorService getProducerPool() {
             return producerPool;
         }
@@ -111,23 +106,47 @@ public class ConstantLoadWithThreadPoolAnalysis {
         private int parallelism;
 
         private List<Future<ClientResponse>> futures;
+        private long[] sendTimes;
+        /**
+         * Written by listener before completing slot future, read by benchmark thread once future is done
+         */
+        private long[] completionTimes;
+        private LatencyHistogram latencies;
 
         @Setup(Level.Iteration)
         public void setup() {
             futures = IntStream.range(0, parallelism)
                     .mapToObj(__ -> (Future<ClientResponse>) null)
                     .collect(Collectors.toCollection(ArrayList::new));
+            sendTimes = new long[parallelism];
+            completionTimes = new long[parallelism];
+            latencies = LatencyRecorder.local();
         }
 
         public List<Future<ClientResponse>> getFutures() {
             return futures;
         }
+
+        public long[] getSendTimes() {
+            return sendTimes;
+        }
+
+        public long[] getCompletionTimes() {
+            return completionTimes;
+        }
+
+        public LatencyHistogram getLatencies() {
+            return latencies;
+        }
     }
 
     private ClientResponse iteration(final ClientState clientState,
                                      final ThreadState threadState) throws Exception {
         final var client = clientState.getClient();
         final var futures = threadState.getFutures();
+        final var sendTimes = threadState.getSendTimes();
+        final var completionTimes = threadState.getCompletionTimes();
+        final var latencies = threadState.getLatencies();
         final var producerPool = clientState.getProducerPool();
 
         while (true) {
@@ -136,13 +155,18 @@ public class ConstantLoadWithThreadPoolAnalysis {
                 if (future != null && !future.isDone()) {
                     continue;
                 }
+                final long now = System.nanoTime();
+                // slot is reused below, so completion time of its previous request is read first
+                final long completedAt = completionTimes[i];
+                final int slot = i;
 
                 final var newFuture = new CompletableFuture<ClientResponse>();
 
                 producerPool.submit(() -> {
-                    final Object request = client.mapRequest(new ClientRequest(URL, null));
+                    final Object request = clientState.newRequest();
                     final var requestCompletionFuture = (ListenableFuture<?>) client.sendUnchecked(request);
                     requestCompletionFuture.addListener(() -> {
+                        completionTimes[slot] = System.nanoTime();
                         try {
                             var response = client.mapResponseUnchecked(requestCompletionFuture.get());
                             newFuture.complete(response);
@@ -153,10 +177,14 @@ public class ConstantLoadWithThreadPoolAnalysis {
                 });
 
                 futures.set(i, newFuture);
+                final long sentAt = sendTimes[i];
+                sendTimes[i] = now;
 
                 if (future != null) {
                     try {
-                        return future.get();
+                        final var response = future.get();
+                        latencies.record(completedAt - sentAt);
+                        return response;
                     } catch (Exception e) {
                         System.err.println(
                                 "Got exception, class = '" + e.getClass().getName() + "', message = '" + e.getMessage() + "'"
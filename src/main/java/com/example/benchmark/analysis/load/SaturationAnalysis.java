@@ -0,0 +1,161 @@
+package com.example.benchmark.analysis.load;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.example.benchmark.harness.BenchmarkClientState;
+import com.example.benchmark.utils.queue.CheatingQueue;
+import com.example.benchmark.utils.queue.NonBlockingQueue;
+import com.example.benchmark.utils.queue.WaitStrategy;
+import com.example.client.ClientAdapter;
+import com.example.client.ClientConfiguration;
+import com.example.client.impl.JavaClientAdapter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+/**
+ * Open-model load above capacity of {@link JavaClientAdapter}, requests are dispatched
+ * by fixed pool of {@code workers} making blocking calls, so at most {@code workers} requests are in flight.
+ * <p>
+ * Requests arrived while all workers are busy wait in pool work queue. Unbounded queue accepts all of them,
+ * so backlog, heap and latency grow during the whole trial (until OOM for long enough runs),
+ * bounded queue rejects excess requests and keeps latency of accepted ones about {@code queueCapacity / throughput}.
+ * Run with {@code -prof com.example.profiler.LatencyProfiler -prof gc}, backlog and rejected requests
+ * are printed after every iteration.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 6, time = 10)
+public class SaturationAnalysis {
+
+    public static class ClientState extends BenchmarkClientState {
+
+        @Param(value = {
+                "LINKED_BLOCKING_QUEUE",
+                "NON_BLOCKING_QUEUE",
+                "ARRAY_BLOCKING_QUEUE",
+                "BOUNDED_NON_BLOCKING_QUEUE",
+                "BOUNDED_CHEATING_QUEUE",
+        })
+        private String queueName;
+        @Param(value = {
+                "1024",
+        })
+        private int queueCapacity;
+        @Param(value = {
+                "8",
+        })
+        private int ioThreads;
+        @Param(value = {
+                "16",
+        })
+        private int workers;
+        @Param(value = {
+                "20000",
+                "50000",
+        })
+        private int targetRps;
+
+        private ThreadPoolExecutor dispatcher;
+
+        @Override
+        protected ClientAdapter<?, ?> createClient() {
+            return new JavaClientAdapter(new ClientConfiguration(ioThreads));
+        }
+
+        @Setup(Level.Trial)
+        public void setupDispatcher() {
+            dispatcher = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS, createQueue());
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDownDispatcher() {
+            dispatcher.shutdownNow();
+            dispatcher = null;
+        }
+
+        private BlockingQueue<Runnable> createQueue() {
+            return switch (queueName) {
+                case "LINKED_BLOCKING_QUEUE" -> new LinkedBlockingQueue<>();
+                case "NON_BLOCKING_QUEUE" -> new NonBlockingQueue<>(
+                        NonBlockingQueue.DEFAULT_SEGMENT_SIZE, WaitStrategy.SPIN_THEN_PARK
+                );
+                case "ARRAY_BLOCKING_QUEUE" -> new ArrayBlockingQueue<>(queueCapacity);
+                case "BOUNDED_NON_BLOCKING_QUEUE" -> new NonBlockingQueue<>(
+                        NonBlockingQueue.DEFAULT_SEGMENT_SIZE, queueCapacity, WaitStrategy.SPIN_THEN_PARK, false
+                );
+                case "BOUNDED_CHEATING_QUEUE" -> new CheatingQueue<>(
+                        CheatingQueue.DEFAULT_SEGMENT_SIZE, CheatingQueue.DEFAULT_CPU_CONSUMING, queueCapacity
+                );
+                default -> throw new IllegalArgumentException("Unknown queue name '" + queueName + "'");
+            };
+        }
+
+        public ThreadPoolExecutor getDispatcher() {
+            return dispatcher;
+        }
+
+        public int getTargetRps() {
+            return targetRps;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+
+        private ArrivalRateProducer producer;
+        private ThreadPoolExecutor dispatcher;
+
+        @Setup(Level.Trial)
+        public void setup(final ClientState clientState, final BenchmarkParams benchmarkParams) {
+            dispatcher = clientState.getDispatcher();
+            producer = new ArrivalRateProducer(
+                    clientState.getClient(),
+                    clientState::newRequest,
+                    ArrivalRateProducer.periodNanos(clientState.getTargetRps(), benchmarkParams.getThreads()),
+                    dispatcher
+            );
+        }
+
+        @Setup(Level.Iteration)
+        public void startIteration() {
+            producer.start();
+        }
+
+        @TearDown(Level.Iteration)
+        public void finishIteration() {
+            System.err.println(
+                    "Backlog " + dispatcher.getQueue().size() + " requests, rejected " + producer.getRejected()
+                            + ", failed " + producer.getErrors() + " during iteration"
+            );
+        }
+
+        public ArrivalRateProducer getProducer() {
+            return producer;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long benchmark(final ThreadState threadState) {
+        return threadState.getProducer().sendNext();
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.benchmark.analysis.network;
+
+import java.util.concurrent.TimeUnit;
+
+import com.example.benchmark.harness.BenchmarkClientState;
+import com.example.benchmark.harness.CompletionMode;
+import com.example.benchmark.harness.ProducerState;
+import com.example.client.AdaptedClient;
+import com.example.client.ClientAdapter;
+import com.example.client.ClientConfiguration;
+import com.example.client.impl.RawClientAdapter;
+import com.example.client.model.ClientResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * HTTP/1.1 pipelining of {@link RawClientAdapter} against regular keep-alive clients.
+ * <p>
+ * Both benchmarks keep the same {@code parallelism} requests in flight, so pipelined client
+ * needs {@code pipelineDepth} times fewer connections. Reference clients don't pipeline:
+ * Jetty 12 HTTP/1.1 transport has no pipelining at all, AHC sends next request only after previous response.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 30)
+@Measurement(iterations = 12, time = 20)
+public class PipeliningAnalysis {
+
+    public static class CommonClientState extends BenchmarkClientState {
+
+        @Param(value = {
+                "8",
+        })
+        private int ioThreads;
+        @Param(value = {
+                "0",
+//                "2048",
+//                "8192",
+        })
+        private int bodySize;
+
+        protected ClientAdapter<?, ?> createClient(final ClientConfiguration configuration) {
+            throw new IllegalStateException("Must be defined by subclass");
+        }
+
+        @Override
+        protected ClientAdapter<?, ?> createClient() {
+            return createClient(new ClientConfiguration(ioThreads));
+        }
+
+        @Override
+        protected int getBodySize() {
+            return bodySize;
+        }
+    }
+
+    public static class PipelinedClientState extends CommonClientState {
+
+        @Param(value = {
+                "1",
+                "4",
+                "16",
+        })
+        private int pipelineDepth;
+
+        @Override
+        protected ClientAdapter<?, ?> createClient(final ClientConfiguration configuration) {
+            return new RawClientAdapter(configuration, pipelineDepth);
+        }
+    }
+
+    public static class ReferenceClientState extends CommonClientState {
+
+        @Param(value = {
+                "JETTY_CLIENT",
+                "ASYNC_CLIENT",
+        })
+        private String clientName;
+
+        @Override
+        protected ClientAdapter<?, ?> createClient(final ClientConfiguration configuration) {
+            return AdaptedClient.create(clientName, configuration);
+        }
+    }
+
+    public static class ThreadState extends ProducerState {
+
+        @Param(value = {
+                "64",
+                "256",
+                "1024",
+        })
+        private int parallelism;
+
+        @Override
+        protected int getParallelism() {
+            return parallelism;
+        }
+
+        @Override
+        protected CompletionMode getCompletionMode() {
+            return CompletionMode.CALLBACK;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public ClientResponse pipelined(final PipelinedClientState clientState,
+                                    final ThreadState threadState) throws Exception {
+        return threadState.next(clientState);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public ClientResponse reference(final ReferenceClientState clientState,
+                                    final ThreadState threadState) throws Exception {
+        return threadState.next(clientState);
+    }
+}
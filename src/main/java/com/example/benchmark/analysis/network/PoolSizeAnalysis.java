@@ -0,0 +1,108 @@
+package com.example.benchmark.analysis.network;
+
+import java.util.concurrent.TimeUnit;
+
+import com.example.benchmark.harness.BenchmarkClientState;
+import com.example.benchmark.harness.ProducerState;
+import com.example.client.AdaptedClient;
+import com.example.client.ClientAdapter;
+import com.example.client.ClientConfiguration;
+import com.example.client.model.ClientResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Connection pool size sweep, looking for the number of connections each client performs best with.
+ * <p>
+ * Requests above {@code maxConnectionsPerRoute} wait for a free connection inside the client.
+ * Java client is missing as its pool is not configurable per client,
+ * Jetty {@code parallelism} must stay below {@code maxRequestsQueuedPerDestination}.
+ * Baseline client holds a connection per executor thread, so it gets {@code baselineThreads}
+ * (at least the largest {@code parallelism}) instead of {@code ioThreads}, otherwise its pool never grows past them.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 30)
+@Measurement(iterations = 4, time = 30)
+public class PoolSizeAnalysis {
+
+    public static class ClientState extends BenchmarkClientState {
+
+        @Param(value = {
+                "BASELINE_CLIENT",
+                "APACHE_CLIENT",
+                "ASYNC_CLIENT",
+                "JETTY_CLIENT",
+        })
+        private String clientName;
+        @Param(value = {
+                "8",
+                "32",
+                "128",
+                "512",
+                "2147483647",
+        })
+        private int maxConnectionsPerRoute;
+        @Param(value = {
+                "8",
+        })
+        private int ioThreads;
+        @Param(value = {
+                "1024",
+        })
+        private int baselineThreads;
+        @Param(value = {
+                "0",
+//                "2048",
+//                "8192",
+        })
+        private int bodySize;
+
+        @Override
+        protected ClientAdapter<?, ?> createClient() {
+            final int threads = AdaptedClient.BASELINE_CLIENT.name().equals(clientName)
+                    ? baselineThreads
+                    : ioThreads;
+            return AdaptedClient.create(
+                    clientName,
+                    ClientConfiguration.builder(threads)
+                            .maxConnectionsPerRoute(maxConnectionsPerRoute)
+                            .build()
+            );
+        }
+
+        @Override
+        protected int getBodySize() {
+            return bodySize;
+        }
+    }
+
+    public static class ThreadState extends ProducerState {
+
+        @Param(value = {
+                "256",
+                "1024",
+        })
+        private int parallelism;
+
+        @Override
+        protected int getParallelism() {
+            return parallelism;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public ClientResponse benchmark(final ClientState clientState,
+                                    final ThreadState threadState) throws Exception {
+        return threadState.next(clientState);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.benchmark.analysis.network;
+
+import java.util.concurrent.TimeUnit;
+
+import com.example.benchmark.harness.BenchmarkClientState;
+import com.example.benchmark.harness.CompletionMode;
+import com.example.benchmark.harness.ProducerState;
+import com.example.client.AdaptedClient;
+import com.example.client.ClientAdapter;
+import com.example.client.ClientConfiguration;
+import com.example.client.model.ClientResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Response body consumption: materialized into array ({@code CALLBACK}),
+ * streamed into reusable buffer ({@code STREAM}) or dropped ({@code DISCARD}).
+ * <p>
+ * Embedded server responds with 128 KiB body, other sizes are set with
+ * {@code -jvmArgsAppend -Dserver_response_size=<bytes>}, nginx response is configured on nginx side.
+ * Run with {@code -prof gc} to see allocation rate difference.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Dserver_response_size=131072")
+@Warmup(iterations = 2, time = 30)
+@Measurement(iterations = 4, time = 30)
+public class ResponseBodyAnalysis {
+
+    public static class ClientState extends BenchmarkClientState {
+
+        @Param(value = {
+                "BASELINE_CLIENT",
+                "JAVA_CLIENT",
+                "ASYNC_CLIENT",
+                "APACHE_CLIENT",
+                "JETTY_CLIENT",
+                "RAW_NIO_CLIENT",
+        })
+        private String clientName;
+        @Param(value = {
+                "8",
+        })
+        private int ioThreads;
+
+        @Override
+        protected ClientAdapter<?, ?> createClient() {
+            return AdaptedClient.create(clientName, new ClientConfiguration(ioThreads));
+        }
+    }
+
+    public static class ThreadState extends ProducerState {
+
+        @Param(value = {
+                "CALLBACK",
+                "STREAM",
+                "DISCARD",
+        })
+        private String completionMode;
+        @Param(value = {
+                "64",
+                "256",
+        })
+        private int parallelism;
+
+        @Override
+        protected int getParallelism() {
+            return parallelism;
+        }
+
+        @Override
+        protected CompletionMode getCompletionMode() {
+            return CompletionMode.valueOf(completionMode);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public ClientResponse benchmark(final ClientState clientState,
+                                    final ThreadState threadState) throws Exception {
+        return threadState.next(clientState);
+    }
+}
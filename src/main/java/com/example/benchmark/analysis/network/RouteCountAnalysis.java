@@ -0,0 +1,164 @@
+package com.example.benchmark.analysis.network;
+
+import java.util.concurrent.TimeUnit;
+
+import com.example.benchmark.harness.BenchmarkClientState;
+import com.example.benchmark.harness.ProducerState;
+import com.example.benchmark.harness.RouteSelection;
+import com.example.client.AdaptedClient;
+import com.example.client.ClientAdapter;
+import com.example.client.ClientConfiguration;
+import com.example.client.impl.ApacheClientAdapter;
+import com.example.client.model.ClientResponse;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Connection pools scaling with the number of routes, requests are spread over {@code routes} server ports
+ * uniformly or with Zipf distribution (few hot routes, long cold tail).
+ * <p>
+ * Requests are prepared per route, so per-send mapping doesn't hide pool lookup cost.
+ * {@code apache} compares {@link PoolConcurrencyPolicy} of Apache async client:
+ * {@code STRICT} pool has single lock over all routes, {@code LAX} one locks per route.
+ * Every route keeps its own idle connections, so at 1000 routes both client and embedded server
+ * hold thousands of sockets, raise {@code ulimit -n} accordingly.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 30)
+@Measurement(iterations = 4, time = 30)
+public class RouteCountAnalysis {
+
+    public static class CommonClientState extends BenchmarkClientState {
+
+        @Param(value = {
+                "1",
+                "10",
+                "100",
+                "1000",
+        })
+        private int routes;
+        @Param(value = {
+                "UNIFORM",
+                "ZIPF",
+        })
+        private String routeSelection;
+        @Param(value = {
+                "2147483647",
+//                "8",
+//                "32",
+        })
+        private int maxConnectionsPerRoute;
+        @Param(value = {
+                "8",
+        })
+        private int ioThreads;
+        @Param(value = {
+                "0",
+//                "2048",
+//                "8192",
+        })
+        private int bodySize;
+
+        protected ClientAdapter<?, ?> createClient(final ClientConfiguration configuration) {
+            throw new IllegalStateException("Must be defined by subclass");
+        }
+
+        @Override
+        protected ClientAdapter<?, ?> createClient() {
+            return createClient(
+                    ClientConfiguration.builder(ioThreads)
+                            .maxConnectionsPerRoute(maxConnectionsPerRoute)
+                            .build()
+            );
+        }
+
+        @Override
+        protected int getBodySize() {
+            return bodySize;
+        }
+
+        @Override
+        protected boolean isPrepared() {
+            return true;
+        }
+
+        @Override
+        protected int getRoutes() {
+            return routes;
+        }
+
+        @Override
+        protected RouteSelection getRouteSelection() {
+            return RouteSelection.valueOf(routeSelection);
+        }
+    }
+
+    public static class ClientState extends CommonClientState {
+
+        @Param(value = {
+                "BASELINE_CLIENT",
+                "JAVA_CLIENT",
+                "ASYNC_CLIENT",
+                "JETTY_CLIENT",
+                "RAW_NIO_CLIENT",
+        })
+        private String clientName;
+
+        @Override
+        protected ClientAdapter<?, ?> createClient(final ClientConfiguration configuration) {
+            return AdaptedClient.create(clientName, configuration);
+        }
+    }
+
+    public static class ApacheClientState extends CommonClientState {
+
+        @Param(value = {
+                "STRICT",
+                "LAX",
+        })
+        private String poolPolicy;
+
+        @Override
+        protected ClientAdapter<?, ?> createClient(final ClientConfiguration configuration) {
+            return new ApacheClientAdapter(configuration, PoolConcurrencyPolicy.valueOf(poolPolicy));
+        }
+    }
+
+    public static class ThreadState extends ProducerState {
+
+        @Param(value = {
+                "256",
+//                "1024",
+        })
+        private int parallelism;
+
+        @Override
+        protected int getParallelism() {
+            return parallelism;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public ClientResponse benchmark(final ClientState clientState,
+                                    final ThreadState threadState) throws Exception {
+        return threadState.next(clientState);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public ClientResponse apache(final ApacheClientState clientState,
+                                 final ThreadState threadState) throws Exception {
+        return threadState.next(clientState);
+    }
+}
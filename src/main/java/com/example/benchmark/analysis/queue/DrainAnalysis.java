@@ -0,0 +1,193 @@
+package com.example.benchmark.analysis.queue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import com.example.benchmark.utils.queue.BatchDrainQueue;
+import com.example.benchmark.utils.queue.CheatingQueue;
+import com.example.benchmark.utils.queue.LockFreeQueue;
+import com.example.benchmark.utils.queue.MpmcArrayQueueAdapter;
+import com.example.benchmark.utils.queue.NonBlockingQueue;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Single consumer draining up to {@code batchSize} items per call of {@link BatchDrainQueue#drainTo},
+ * the way IO-completion executor worker takes its tasks.
+ * <p>
+ * Groups: {@code spsc} (1 producer), {@code mpsc} (4 producers). Primary score counts drain calls,
+ * so compare secondary {@code drained} counter, it is the number of items passed to consumer.
+ * Producers stop offering while backlog exceeds {@link #MAX_BACKLOG}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class DrainAnalysis {
+
+    private static final Integer ITEM = 42;
+    private static final int MAX_BACKLOG = 1 << 16;
+    /**
+     * Operations between updates of shared offered/drained counters
+     */
+    private static final int BATCH = 1024;
+
+    @State(Scope.Group)
+    public static class QueueState {
+
+        @Param(value = {
+                "NON_BLOCKING_QUEUE",
+                "LOCK_FREE_QUEUE",
+                "CHEATING_QUEUE",
+                "MPMC_ARRAY_QUEUE",
+        })
+        private String queueName;
+        @Param(value = {
+                "64",
+        })
+        private int segmentSize;
+        @Param(value = {
+                "1",
+                "8",
+                "64",
+        })
+        private int batchSize;
+
+        private BatchDrainQueue<Integer> queue;
+        private final AtomicLong offered = new AtomicLong();
+        private final AtomicLong drained = new AtomicLong();
+
+        @Setup(Level.Iteration)
+        public void setup() {
+            queue = switch (queueName) {
+                case "NON_BLOCKING_QUEUE" -> new NonBlockingQueue<>(segmentSize);
+                case "LOCK_FREE_QUEUE" -> new LockFreeQueue<>(segmentSize);
+                case "CHEATING_QUEUE" -> new CheatingQueue<>(segmentSize);
+                case "MPMC_ARRAY_QUEUE" -> new MpmcArrayQueueAdapter<>(MAX_BACKLOG);
+                default -> throw new IllegalArgumentException("Unknown queue name '" + queueName + "'");
+            };
+            offered.set(0);
+            drained.set(0);
+        }
+
+        public BatchDrainQueue<Integer> getQueue() {
+            return queue;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        private boolean isOverloaded() {
+            return offered.get() - drained.get() > MAX_BACKLOG;
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+
+        public long offered;
+        public long rejected;
+        public long throttled;
+        public long drained;
+        public long emptyDrains;
+
+        private int pending;
+        private boolean overloaded;
+        private long checksum;
+        private final Consumer<Integer> sink = item -> checksum += item;
+
+        @Setup(Level.Iteration)
+        public void setup() {
+            offered = 0;
+            rejected = 0;
+            throttled = 0;
+            drained = 0;
+            emptyDrains = 0;
+            pending = 0;
+            overloaded = false;
+        }
+    }
+
+    private static void offer(final QueueState queueState, final Counters counters) {
+        if (counters.overloaded) {
+            ++counters.throttled;
+            counters.overloaded = queueState.isOverloaded();
+            Thread.onSpinWait();
+            return;
+        }
+        if (!queueState.getQueue().offer(ITEM)) {
+            ++counters.rejected;
+            return;
+        }
+        ++counters.offered;
+        if (++counters.pending == BATCH) {
+            queueState.offered.addAndGet(BATCH);
+            counters.pending = 0;
+            counters.overloaded = queueState.isOverloaded();
+        }
+    }
+
+    private static long drain(final QueueState queueState, final Counters counters) {
+        final int count = queueState.getQueue().drainTo(counters.sink, queueState.getBatchSize());
+        if (count == 0) {
+            ++counters.emptyDrains;
+            return counters.checksum;
+        }
+        counters.drained += count;
+        counters.pending += count;
+        if (counters.pending >= BATCH) {
+            queueState.drained.addAndGet(counters.pending);
+            counters.pending = 0;
+        }
+        return counters.checksum;
+    }
+
+    // 1 producer, 1 consumer
+
+    @Benchmark
+    @Group("spsc")
+    @GroupThreads(1)
+    public void spsc_offer(final QueueState queueState, final Counters counters) {
+        offer(queueState, counters);
+    }
+
+    @Benchmark
+    @Group("spsc")
+    @GroupThreads(1)
+    public long spsc_drain(final QueueState queueState, final Counters counters) {
+        return drain(queueState, counters);
+    }
+
+    // 4 producers, 1 consumer
+
+    @Benchmark
+    @Group("mpsc")
+    @GroupThreads(4)
+    public void mpsc_offer(final QueueState queueState, final Counters counters) {
+        offer(queueState, counters);
+    }
+
+    @Benchmark
+    @Group("mpsc")
+    @GroupThreads(1)
+    public long mpsc_drain(final QueueState queueState, final Counters counters) {
+        return drain(queueState, counters);
+    }
+}
@@ -0,0 +1,282 @@
+package com.example.benchmark.analysis.queue;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.example.benchmark.utils.queue.CheatingQueue;
+import com.example.benchmark.utils.queue.LockFreeQueue;
+import com.example.benchmark.utils.queue.MpmcArrayQueueAdapter;
+import com.example.benchmark.utils.queue.NonBlockingQueue;
+import com.example.benchmark.utils.queue.WaitStrategy;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Producer/consumer throughput and per-op latency of the segment queues against JDK and JCTools ones.
+ * <p>
+ * Groups: {@code spsc} (1 producer, 1 consumer), {@code mpsc} (4 producers, 1 consumer),
+ * {@code mpmc} (4 producers, 4 consumers), segment queues are swept over {@code segmentSize},
+ * {@code _reference} groups run the same load on queues without segments. Primary score counts every call, including empty polls
+ * and throttled offers, so compare {@code offered} / {@code polled} secondary counters as well.
+ * Producers stop offering while backlog exceeds {@link #MAX_BACKLOG}, unbounded queues can't run out of memory.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class QueueAnalysis {
+
+    private static final Integer ITEM = 42;
+    private static final int MAX_BACKLOG = 1 << 16;
+    /**
+     * Operations between updates of shared offered/polled counters
+     */
+    private static final int BATCH = 1024;
+
+    @State(Scope.Group)
+    public static class QueueState {
+
+        private Queue<Integer> queue;
+        private final AtomicLong offered = new AtomicLong();
+        private final AtomicLong polled = new AtomicLong();
+
+        protected Queue<Integer> createQueue() {
+            throw new IllegalStateException("Must be defined by subclass");
+        }
+
+        @Setup(Level.Iteration)
+        public void setup() {
+            queue = createQueue();
+            offered.set(0);
+            polled.set(0);
+        }
+
+        public Queue<Integer> getQueue() {
+            return queue;
+        }
+
+        private boolean isOverloaded() {
+            return offered.get() - polled.get() > MAX_BACKLOG;
+        }
+    }
+
+    public static class SegmentQueueState extends QueueState {
+
+        @Param(value = {
+                "NON_BLOCKING_QUEUE",
+                "NON_BLOCKING_RECYCLING_QUEUE",
+                "LOCK_FREE_QUEUE",
+                "CHEATING_QUEUE",
+        })
+        private String queueName;
+        @Param(value = {
+                "8",
+                "64",
+                "256",
+                "1024",
+        })
+        private int segmentSize;
+
+        @Override
+        protected Queue<Integer> createQueue() {
+            return switch (queueName) {
+                case "NON_BLOCKING_QUEUE" -> new NonBlockingQueue<>(segmentSize);
+                case "NON_BLOCKING_RECYCLING_QUEUE" -> new NonBlockingQueue<>(segmentSize, WaitStrategy.BUSY_SPIN, true);
+                case "LOCK_FREE_QUEUE" -> new LockFreeQueue<>(segmentSize);
+                case "CHEATING_QUEUE" -> new CheatingQueue<>(segmentSize);
+                default -> throw new IllegalArgumentException("Unknown queue name '" + queueName + "'");
+            };
+        }
+    }
+
+    public static class ReferenceQueueState extends QueueState {
+
+        @Param(value = {
+                "MPMC_ARRAY_QUEUE",
+                "CONCURRENT_LINKED_QUEUE",
+                "LINKED_BLOCKING_QUEUE",
+        })
+        private String queueName;
+
+        @Override
+        protected Queue<Integer> createQueue() {
+            return switch (queueName) {
+                case "MPMC_ARRAY_QUEUE" -> new MpmcArrayQueueAdapter<>(MAX_BACKLOG);
+                case "CONCURRENT_LINKED_QUEUE" -> new ConcurrentLinkedQueue<>();
+                case "LINKED_BLOCKING_QUEUE" -> new LinkedBlockingQueue<>();
+                default -> throw new IllegalArgumentException("Unknown queue name '" + queueName + "'");
+            };
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+
+        public long offered;
+        public long rejected;
+        public long throttled;
+        public long polled;
+        public long emptyPolls;
+
+        private int pending;
+        private boolean overloaded;
+
+        @Setup(Level.Iteration)
+        public void setup() {
+            offered = 0;
+            rejected = 0;
+            throttled = 0;
+            polled = 0;
+            emptyPolls = 0;
+            pending = 0;
+            overloaded = false;
+        }
+    }
+
+    private static void offer(final QueueState queueState, final Counters counters) {
+        if (counters.overloaded) {
+            ++counters.throttled;
+            counters.overloaded = queueState.isOverloaded();
+            Thread.onSpinWait();
+            return;
+        }
+        if (!queueState.getQueue().offer(ITEM)) {
+            ++counters.rejected;
+            return;
+        }
+        ++counters.offered;
+        if (++counters.pending == BATCH) {
+            queueState.offered.addAndGet(BATCH);
+            counters.pending = 0;
+            counters.overloaded = queueState.isOverloaded();
+        }
+    }
+
+    private static Integer poll(final QueueState queueState, final Counters counters) {
+        final Integer item = queueState.getQueue().poll();
+        if (item == null) {
+            ++counters.emptyPolls;
+            return null;
+        }
+        ++counters.polled;
+        if (++counters.pending == BATCH) {
+            queueState.polled.addAndGet(BATCH);
+            counters.pending = 0;
+        }
+        return item;
+    }
+
+    // 1 producer, 1 consumer
+
+    @Benchmark
+    @Group("spsc")
+    @GroupThreads(1)
+    public void spsc_offer(final SegmentQueueState queueState, final Counters counters) {
+        offer(queueState, counters);
+    }
+
+    @Benchmark
+    @Group("spsc")
+    @GroupThreads(1)
+    public Integer spsc_poll(final SegmentQueueState queueState, final Counters counters) {
+        return poll(queueState, counters);
+    }
+
+    // 1 producer, 1 consumer, queues without segments
+
+    @Benchmark
+    @Group("spsc_reference")
+    @GroupThreads(1)
+    public void spsc_reference_offer(final ReferenceQueueState queueState, final Counters counters) {
+        offer(queueState, counters);
+    }
+
+    @Benchmark
+    @Group("spsc_reference")
+    @GroupThreads(1)
+    public Integer spsc_reference_poll(final ReferenceQueueState queueState, final Counters counters) {
+        return poll(queueState, counters);
+    }
+
+    // 4 producers, 1 consumer
+
+    @Benchmark
+    @Group("mpsc")
+    @GroupThreads(4)
+    public void mpsc_offer(final SegmentQueueState queueState, final Counters counters) {
+        offer(queueState, counters);
+    }
+
+    @Benchmark
+    @Group("mpsc")
+    @GroupThreads(1)
+    public Integer mpsc_poll(final SegmentQueueState queueState, final Counters counters) {
+        return poll(queueState, counters);
+    }
+
+    // 4 producers, 1 consumer, queues without segments
+
+    @Benchmark
+    @Group("mpsc_reference")
+    @GroupThreads(4)
+    public void mpsc_reference_offer(final ReferenceQueueState queueState, final Counters counters) {
+        offer(queueState, counters);
+    }
+
+    @Benchmark
+    @Group("mpsc_reference")
+    @GroupThreads(1)
+    public Integer mpsc_reference_poll(final ReferenceQueueState queueState, final Counters counters) {
+        return poll(queueState, counters);
+    }
+
+    // 4 producers, 4 consumers
+
+    @Benchmark
+    @Group("mpmc")
+    @GroupThreads(4)
+    public void mpmc_offer(final SegmentQueueState queueState, final Counters counters) {
+        offer(queueState, counters);
+    }
+
+    @Benchmark
+    @Group("mpmc")
+    @GroupThreads(4)
+    public Integer mpmc_poll(final SegmentQueueState queueState, final Counters counters) {
+        return poll(queueState, counters);
+    }
+
+    // 4 producers, 4 consumers, queues without segments
+
+    @Benchmark
+    @Group("mpmc_reference")
+    @GroupThreads(4)
+    public void mpmc_reference_offer(final ReferenceQueueState queueState, final Counters counters) {
+        offer(queueState, counters);
+    }
+
+    @Benchmark
+    @Group("mpmc_reference")
+    @GroupThreads(4)
+    public Integer mpmc_reference_poll(final ReferenceQueueState queueState, final Counters counters) {
+        return poll(queueState, counters);
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.benchmark.harness;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.example.benchmark.Utils;
+import com.example.client.ClientAdapter;
+import com.example.client.PreparedRequest;
+import com.example.client.model.ClientRequest;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Client shared by all producer threads of the trial.
+ * <p>
+ * Subclass declares its own {@code @Param}-s and creates client from them,
+ * request sent to {@link Utils#SERVER_URL} is built once per trial and mapped per send,
+ * or prepared once when {@link #isPrepared()}.
+ * With several {@link #getRoutes()} there is a request per server port, picked per send by {@link TargetSet}.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkClientState {
+
+    private ClientAdapter<?, ?> client;
+    private byte[] body;
+    private TargetSet targets;
+    private ClientRequest[] requests;
+    private PreparedRequest<?>[] preparedRequests;
+
+    protected ClientAdapter<?, ?> createClient() {
+        throw new IllegalStateException("Must be defined by subclass");
+    }
+
+    /**
+     * @return request body size, 0 for GET requests
+     */
+    protected int getBodySize() {
+        return 0;
+    }
+
+    /**
+     * @return whether request is prepared once by {@link ClientAdapter#prepare} instead of mapped per send
+     */
+    protected boolean isPrepared() {
+        return false;
+    }
+
+    /**
+     * @return number of distinct server ports requests are spread over, see {@link Utils#serverUrls(int)}
+     */
+    protected int getRoutes() {
+        return 1;
+    }
+
+    protected RouteSelection getRouteSelection() {
+        return RouteSelection.UNIFORM;
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        client = createClient();
+        final int bodySize = getBodySize();
+        if (bodySize == 0) {
+            body = null;
+        } else {
+            body = new byte[bodySize];
+            ThreadLocalRandom.current().nextBytes(body);
+        }
+        targets = new TargetSet(Utils.serverUrls(getRoutes()), getRouteSelection());
+        requests = new ClientRequest[targets.size()];
+        preparedRequests = isPrepared() ? new PreparedRequest<?>[targets.size()] : null;
+        for (int route = 0; route < requests.length; ++route) {
+            requests[route] = new ClientRequest(targets.getUrl(route), body);
+            if (preparedRequests != null) {
+                preparedRequests[route] = client.prepare(requests[route]);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        client.shutdown();
+        client = null;
+        body = null;
+        targets = null;
+        requests = null;
+        preparedRequests = null;
+    }
+
+    public ClientAdapter<?, ?> getClient() {
+        return client;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    /**
+     * @return shared request of the next route mapped to client library request
+     */
+    public Object newRequest() {
+        final int route = targets.next();
+        final var prepared = preparedRequests;
+        return prepared != null ? prepared[route].request() : client.mapRequest(requests[route]);
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.benchmark.harness;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Supplier;
+
+import com.example.benchmark.utils.latency.LatencyHistogram;
+import com.example.benchmark.utils.latency.LatencyRecorder;
+import com.example.client.BodySink;
+import com.example.client.ClientAdapter;
+import com.example.client.ResponseCallback;
+import com.example.client.model.ClientResponse;
+
+/**
+ * Fixed set of in-flight requests driven by completion callbacks.
+ * <p>
+ * Every slot hands itself back through the completion queue when its request completes,
+ * producer thread parks on that queue instead of polling {@code Future.isDone()},
+ * takes completed slot and immediately refills it with the next request.
+ * Completing thread only stamps completion time, latency of successful requests is recorded
+ * by producer thread into its {@link LatencyRecorder#local()} histogram, so slots must be created on it.
+ * <p>
+ * With body sink factory responses are streamed through {@link ClientAdapter#stream} into sink owned by slot,
+ * returned responses carry status only.
+ * Nothing is allocated per request on the harness side, as long as producer doesn't have to park.
+ */
+public class CallbackSlots extends RequestSlots {
+
+    private final ClientAdapter<?, ?> client;
+    private final Supplier<Object> requestFactory;
+    private final BlockingQueue<Slot> completed;
+    private final LatencyHistogram latencies;
+
+    public CallbackSlots(final ClientAdapter<?, ?> client,
+                         final Supplier<Object> requestFactory,
+                         final int size) {
+        this(client, requestFactory, size, null);
+    }
+
+    /**
+     * @param sinkFactory creates body sink of each slot, {@code null} to materialize responses
+     */
+    public CallbackSlots(final ClientAdapter<?, ?> client,
+                         final Supplier<Object> requestFactory,
+                         final int size,
+                         final Supplier<? extends BodySink> sinkFactory) {
+        if (size <= 0) {
+            throw new IllegalStateException("Slots count must be positive, but found " + size);
+        }
+        this.client = client;
+        this.requestFactory = requestFactory;
+        this.completed = new ArrayBlockingQueue<>(size);
+        this.latencies = LatencyRecorder.local();
+        for (int i = 0; i < size; ++i) {
+            new Slot(sinkFactory == null ? null : sinkFactory.get()).send();
+        }
+    }
+
+    @Override
+    public ClientResponse next() throws InterruptedException {
+        while (true) {
+            final Slot slot = completed.take();
+            final Object response = slot.response;
+            final Throwable error = slot.error;
+            if (error == null) {
+                latencies.record(slot.completedAt - slot.sentAt);
+                if (slot.sink != null) {
+                    // slot holder is going to be filled by the next exchange
+                    result.set(slot.target.getStatus(), null);
+                }
+            }
+            slot.send();
+
+            if (error == null) {
+                return slot.sink == null
+                        ? client.mapResponseUnchecked(response, result)
+                        : result;
+            }
+            countError(error);
+        }
+    }
+
+    private final class Slot implements ResponseCallback<Object> {
+
+        private final BodySink sink;
+        private final ClientResponse target = new ClientResponse();
+        private Object response;
+        private Throwable error;
+        private long sentAt;
+        private long completedAt;
+
+        private Slot(final BodySink sink) {
+            this.sink = sink;
+        }
+
+        private void send() {
+            response = null;
+            error = null;
+            sentAt = System.nanoTime();
+            try {
+                if (sink == null) {
+                    client.sendUnchecked(requestFactory.get(), this);
+                } else {
+                    client.streamUnchecked(requestFactory.get(), sink, target, this);
+                }
+            } catch (Exception e) {
+                failed(e);
+            }
+        }
+
+        @Override
+        public void completed(final Object response) {
+            completedAt = System.nanoTime();
+            this.response = response;
+            completed.offer(this);
+        }
+
+        @Override
+        public void failed(final Throwable error) {
+            this.error = error;
+            completed.offer(this);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.benchmark.harness;
+
+import java.util.function.Supplier;
+
+import com.example.client.BodySink;
+import com.example.client.ClientAdapter;
+
+/**
+ * How producer thread learns about completed requests
+ */
+public enum CompletionMode {
+
+    /**
+     * Producer spins over slot futures, see {@link PollingSlots}
+     */
+    POLLING() {
+
+        @Override
+        public RequestSlots create(final ClientAdapter<?, ?> client,
+                                   final Supplier<Object> requestFactory,
+                                   final int size) {
+            return new PollingSlots(client, requestFactory, size);
+        }
+    },
+
+    /**
+     * Producer parks until completion callback hands slot back, see {@link CallbackSlots}
+     */
+    CALLBACK() {
+
+        @Override
+        public RequestSlots create(final ClientAdapter<?, ?> client,
+                                   final Supplier<Object> requestFactory,
+                                   final int size) {
+            return new CallbackSlots(client, requestFactory, size);
+        }
+    },
+
+    /**
+     * {@link #CALLBACK} with response body streamed chunk by chunk into {@link CopyingSink} of the slot
+     */
+    STREAM() {
+
+        @Override
+        public RequestSlots create(final ClientAdapter<?, ?> client,
+                                   final Supplier<Object> requestFactory,
+                                   final int size) {
+            return new CallbackSlots(client, requestFactory, size, CopyingSink::new);
+        }
+    },
+
+    /**
+     * {@link #CALLBACK} with response body dropped by client
+     */
+    DISCARD() {
+
+        @Override
+        public RequestSlots create(final ClientAdapter<?, ?> client,
+                                   final Supplier<Object> requestFactory,
+                                   final int size) {
+            return new CallbackSlots(client, requestFactory, size, () -> BodySink.DISCARD);
+        }
+    },
+    ;
+
+    public abstract RequestSlots create(final ClientAdapter<?, ?> client,
+                                        final Supplier<Object> requestFactory,
+                                        final int size);
+}
@@ -0,0 +1,35 @@
+package com.example.benchmark.harness;
+
+import java.nio.ByteBuffer;
+
+import com.example.client.BodySink;
+
+/**
+ * Copies every body chunk into reusable buffer, as stream processing of body would,
+ * chunks larger than buffer are copied piece by piece over the same buffer.
+ */
+public class CopyingSink implements BodySink {
+
+    public static final int DEFAULT_BUFFER_SIZE = 16384;
+
+    private final ByteBuffer buffer;
+
+    public CopyingSink() {
+        this(DEFAULT_BUFFER_SIZE);
+    }
+
+    public CopyingSink(final int bufferSize) {
+        this.buffer = ByteBuffer.allocate(bufferSize);
+    }
+
+    @Override
+    public void onContent(final ByteBuffer content) {
+        final int limit = content.limit();
+        while (content.hasRemaining()) {
+            buffer.clear();
+            content.limit(Math.min(limit, content.position() + buffer.capacity()));
+            buffer.put(content);
+            content.limit(limit);
+        }
+    }
+}
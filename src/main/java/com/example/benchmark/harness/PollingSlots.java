@@ -0,0 +1,66 @@
+package com.example.benchmark.harness;
+
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import com.example.benchmark.utils.latency.LatencyHistogram;
+import com.example.benchmark.utils.latency.LatencyRecorder;
+import com.example.client.ClientAdapter;
+import com.example.client.model.ClientResponse;
+
+/**
+ * Fixed set of in-flight requests driven by {@code Future.isDone()} polling.
+ * <p>
+ * Producer thread walks the ring of slots, refills the first completed slot with the next request
+ * and returns response of completed one. Scan continues from the refilled slot on the next call,
+ * so all slots are served evenly. Must be created on producer thread, latency is recorded into its histogram.
+ */
+public class PollingSlots extends RequestSlots {
+
+    private final ClientAdapter<?, ?> client;
+    private final Supplier<Object> requestFactory;
+    private final Future<?>[] futures;
+    private final long[] sendTimes;
+    private final LatencyHistogram latencies;
+    private int cursor;
+
+    public PollingSlots(final ClientAdapter<?, ?> client,
+                        final Supplier<Object> requestFactory,
+                        final int size) {
+        if (size <= 0) {
+            throw new IllegalStateException("Slots count must be positive, but found " + size);
+        }
+        this.client = client;
+        this.requestFactory = requestFactory;
+        this.futures = new Future<?>[size];
+        this.sendTimes = new long[size];
+        this.latencies = LatencyRecorder.local();
+    }
+
+    @Override
+    public ClientResponse next() {
+        while (true) {
+            final int i = cursor;
+            cursor = i + 1 == futures.length ? 0 : i + 1;
+
+            final var future = futures[i];
+            if (future != null && !future.isDone()) {
+                continue;
+            }
+            final long now = System.nanoTime();
+            futures[i] = client.sendUnchecked(requestFactory.get());
+            final long sentAt = sendTimes[i];
+            sendTimes[i] = now;
+
+            if (future != null) {
+                try {
+                    final var response = client.mapResponseUnchecked(future.get(), result);
+                    latencies.record(now - sentAt);
+                    return response;
+                } catch (Exception e) {
+                    countError(e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.benchmark.harness;
+
+import com.example.client.model.ClientResponse;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+/**
+ * Producer thread keeping its share of {@code parallelism} requests in flight.
+ * <p>
+ * Producer threads count is the benchmark threads count ({@code @Threads}, {@code -t}
+ * or {@link ProducersRunner}), so the same benchmark method serves any count.
+ * {@link ProducersRunner} repeats it in {@code producers} param to tell results apart,
+ * see {@link ProducersRunner#checkProducers}.
+ * Slots are created on the first call of the iteration, on producer thread itself.
+ */
+@State(Scope.Thread)
+public class ProducerState {
+
+    @Param(value = {
+            "0",
+    })
+    private int producers;
+
+    private int producerThreads;
+    private RequestSlots slots;
+
+    /**
+     * @return requests in flight over all producer threads
+     */
+    protected int getParallelism() {
+        throw new IllegalStateException("Must be defined by subclass");
+    }
+
+    protected CompletionMode getCompletionMode() {
+        return CompletionMode.POLLING;
+    }
+
+    @Setup(Level.Iteration)
+    public void setup(final BenchmarkParams benchmarkParams) {
+        ProducersRunner.checkProducers(producers, benchmarkParams);
+        producerThreads = benchmarkParams.getThreads();
+        final int slotsCount = getParallelism() / producerThreads;
+        if (slotsCount <= 0) {
+            throw new IllegalStateException("Slots count must be positive, but found " + slotsCount);
+        }
+        slots = null;
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        if (slots != null) {
+            slots.reportErrors();
+        }
+    }
+
+    public int getProducerThreads() {
+        return producerThreads;
+    }
+
+    public ClientResponse next(final BenchmarkClientState clientState) throws Exception {
+        var current = slots;
+        if (current == null) {
+            current = getCompletionMode().create(
+                    clientState.getClient(),
+                    clientState::newRequest,
+                    getParallelism() / producerThreads
+            );
+            slots = current;
+        }
+        return current.next();
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.benchmark.harness;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatFactory;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs benchmarks once per producer threads count, JMH itself runs every method with single threads count.
+ * <p>
+ * {@code java -cp benchmarks.jar com.example.benchmark.harness.ProducersRunner 1,2,4 <jmh options>},
+ * summary of all runs is printed at the end.
+ * Every run sets {@value #PRODUCERS_PARAM} param along with threads count,
+ * so results of different runs are told apart by it.
+ */
+public class ProducersRunner {
+
+    /**
+     * Param of producer states labeling results with producer threads count,
+     * 0 when benchmark is run directly with any threads count
+     */
+    public static final String PRODUCERS_PARAM = "producers";
+
+    /**
+     * @throws IllegalStateException if non-zero {@value #PRODUCERS_PARAM} param doesn't match benchmark threads count
+     */
+    public static void checkProducers(final int producers, final BenchmarkParams benchmarkParams) {
+        if (producers != 0 && producers != benchmarkParams.getThreads()) {
+            throw new IllegalStateException(
+                    "Param " + PRODUCERS_PARAM + " = " + producers + " doesn't match threads count "
+                            + benchmarkParams.getThreads()
+            );
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            throw new IllegalArgumentException("Comma separated producer threads counts expected as the first argument");
+        }
+        final var options = new CommandLineOptions(Arrays.copyOfRange(args, 1, args.length));
+        final List<RunResult> results = new ArrayList<>();
+        for (final String producers : args[0].split(",")) {
+            results.addAll(new Runner(
+                    new OptionsBuilder()
+                            .parent(options)
+                            .threads(Integer.parseInt(producers.trim()))
+                            .param(PRODUCERS_PARAM, producers.trim())
+                            .build()
+            ).run());
+        }
+        System.out.println();
+        ResultFormatFactory.getInstance(ResultFormatType.TEXT, System.out).writeOut(results);
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.benchmark.harness;
+
+import com.example.client.model.ClientResponse;
+
+/**
+ * Fixed set of in-flight requests owned by single producer thread.
+ * <p>
+ * Failed requests are counted instead of being reported one by one,
+ * count and the first error of iteration are printed by {@link #reportErrors()}.
+ * Responses are mapped in place into single holder owned by producer thread,
+ * so returned response is only valid until the next {@link #next()} call.
+ */
+public abstract class RequestSlots {
+
+    protected final ClientResponse result = new ClientResponse();
+
+    private long errors;
+    private Throwable firstError;
+
+    /**
+     * Waits for any in-flight request to complete, refills its slot
+     * and returns mapped response of completed one, failed requests are skipped.
+     */
+    public abstract ClientResponse next() throws Exception;
+
+    protected void countError(final Throwable error) {
+        if (errors++ == 0) {
+            firstError = error;
+        }
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public void reportErrors() {
+        if (errors != 0) {
+            System.err.println(
+                    "Got " + errors + " failed requests during iteration, first one is class = '"
+                            + firstError.getClass().getName() + "', message = '" + firstError.getMessage() + "'"
+            );
+        }
+        errors = 0;
+        firstError = null;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.benchmark.harness;
+
+/**
+ * How request picks one of the {@link TargetSet} routes
+ */
+public enum RouteSelection {
+
+    /**
+     * Every route is equally likely
+     */
+    UNIFORM() {
+
+        @Override
+        double weight(final int rank) {
+            return 1;
+        }
+    },
+
+    /**
+     * Route of rank {@code k} (counting from 1) is picked with probability proportional to {@code 1 / k},
+     * a few hot routes and a long tail of cold ones
+     */
+    ZIPF() {
+
+        @Override
+        double weight(final int rank) {
+            return 1.0 / (rank + 1);
+        }
+    },
+    ;
+
+    /**
+     * @param rank route index, from 0
+     * @return relative probability of the route
+     */
+    abstract double weight(final int rank);
+}
@@ -0,0 +1,65 @@
+package com.example.benchmark.harness;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Server urls requests are spread over, each of them is a separate route (host and port) for client pools.
+ * <p>
+ * Route is picked per request with {@link RouteSelection}, without allocation and shared state,
+ * non-uniform selection costs a binary search over precomputed cumulative distribution.
+ */
+public final class TargetSet {
+
+    private final String[] urls;
+    /**
+     * Cumulative probabilities of routes, null for uniform selection
+     */
+    private final double[] cumulative;
+
+    public TargetSet(final List<String> urls, final RouteSelection selection) {
+        if (urls.isEmpty()) {
+            throw new IllegalArgumentException("Target set must have at least one url");
+        }
+        this.urls = urls.toArray(new String[0]);
+        if (selection == RouteSelection.UNIFORM || this.urls.length == 1) {
+            this.cumulative = null;
+        } else {
+            this.cumulative = new double[this.urls.length];
+            double total = 0;
+            for (int rank = 0; rank < cumulative.length; ++rank) {
+                total += selection.weight(rank);
+                cumulative[rank] = total;
+            }
+            for (int rank = 0; rank < cumulative.length; ++rank) {
+                cumulative[rank] /= total;
+            }
+            // rounding must not leave random values above the last route
+            cumulative[cumulative.length - 1] = 1;
+        }
+    }
+
+    public int size() {
+        return urls.length;
+    }
+
+    public String getUrl(final int route) {
+        return urls[route];
+    }
+
+    /**
+     * @return index of the route next request goes to
+     */
+    public int next() {
+        if (urls.length == 1) {
+            return 0;
+        }
+        final var random = ThreadLocalRandom.current();
+        if (cumulative == null) {
+            return random.nextInt(urls.length);
+        }
+        final int found = Arrays.binarySearch(cumulative, random.nextDouble());
+        return found >= 0 ? found + 1 : -found - 1;
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.benchmark.utils.executor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.example.benchmark.utils.queue.NonBlockingQueue;
+import com.example.benchmark.utils.queue.WaitStrategy;
+
+/**
+ * Fixed pool of workers, each owning its {@link NonBlockingQueue}.
+ * <p>
+ * Tasks are spread round-robin over worker queues, so submission costs single {@code getAndIncrement}
+ * and lock-free offer, without {@code ThreadPoolExecutor} {@code ctl} CAS and worker lock.
+ * Worker that has nothing in own queue steals from the others before parking,
+ * so task stuck behind long (e.g. blocking) one is picked up by an idle worker.
+ * <p>
+ * Tasks submitted concurrently with {@link #shutdown()} may be run by the submitting thread
+ * if workers could have already left, they are never lost.
+ */
+public class StripedExecutor extends AbstractExecutorService {
+
+    private static final int RUNNING = 0;
+    private static final int SHUTDOWN = 1;
+    private static final int STOP = 2;
+
+    /**
+     * Parked worker wakes up at least this often to steal from other queues and check shutdown
+     */
+    private static final long IDLE_PARK_MICROS = 1_000;
+
+    private final NonBlockingQueue<Runnable>[] queues;
+    private final Thread[] workers;
+    private final AtomicInteger next = new AtomicInteger(0);
+    private final CountDownLatch terminated;
+    private final AtomicInteger runState = new AtomicInteger(RUNNING);
+
+    public StripedExecutor(final int threads) {
+        this(threads, WaitStrategy.SPIN_THEN_PARK);
+    }
+
+    /**
+     * @param waitStrategy how idle workers wait for tasks, {@link WaitStrategy#BUSY_SPIN} burns {@code threads} cores
+     */
+    @SuppressWarnings("unchecked")
+    public StripedExecutor(final int threads, final WaitStrategy waitStrategy) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Threads count must be positive, but found " + threads);
+        }
+        queues = new NonBlockingQueue[threads];
+        workers = new Thread[threads];
+        terminated = new CountDownLatch(threads);
+        for (int index = 0; index < threads; ++index) {
+            queues[index] = new NonBlockingQueue<>(NonBlockingQueue.DEFAULT_SEGMENT_SIZE, waitStrategy, true);
+        }
+        for (int index = 0; index < threads; ++index) {
+            final int workerIndex = index;
+            workers[index] = new Thread(() -> work(workerIndex), "striped-executor-" + index);
+            workers[index].start();
+        }
+    }
+
+    @Override
+    public void execute(final Runnable command) {
+        if (command == null) {
+            throw new NullPointerException();
+        }
+        if (runState.get() != RUNNING) {
+            throw new RejectedExecutionException("Executor is shut down");
+        }
+        final var queue = queues[(next.getAndIncrement() & Integer.MAX_VALUE) % queues.length];
+        queue.offer(command);
+        if (runState.get() != RUNNING) {
+            // owner may have seen its queue empty and left, help it
+            runAll(queue);
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        runState.compareAndSet(RUNNING, SHUTDOWN);
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        runState.set(STOP);
+        for (final Thread worker : workers) {
+            worker.interrupt();
+        }
+        final var tasks = new ArrayList<Runnable>();
+        for (final var queue : queues) {
+            queue.drainTo(tasks);
+        }
+        return tasks;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return runState.get() != RUNNING;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return terminated.getCount() == 0;
+    }
+
+    @Override
+    public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+        return terminated.await(timeout, unit);
+    }
+
+    private void work(final int index) {
+        final var own = queues[index];
+        try {
+            while (runState.get() != STOP) {
+                // read before polling, so submitter that still saw RUNNING after its offer is polled here
+                final boolean shutdown = runState.get() != RUNNING;
+                Runnable task = own.poll();
+                if (task == null) {
+                    task = steal(index);
+                }
+                if (task == null) {
+                    if (shutdown) {
+                        // all queues were seen empty after shutdown, later tasks are run by submitters
+                        return;
+                    }
+                    try {
+                        task = own.poll(IDLE_PARK_MICROS, TimeUnit.MICROSECONDS);
+                    } catch (InterruptedException e) {
+                        continue;
+                    }
+                    if (task == null) {
+                        continue;
+                    }
+                }
+                run(task);
+            }
+        } finally {
+            terminated.countDown();
+        }
+    }
+
+    private Runnable steal(final int index) {
+        for (int offset = 1; offset < queues.length; ++offset) {
+            final var task = queues[(index + offset) % queues.length].poll();
+            if (task != null) {
+                return task;
+            }
+        }
+        return null;
+    }
+
+    private void runAll(final NonBlockingQueue<Runnable> queue) {
+        Runnable task;
+        while (runState.get() != STOP && (task = queue.poll()) != null) {
+            run(task);
+        }
+    }
+
+    private static void run(final Runnable task) {
+        try {
+            task.run();
+        } catch (Throwable e) {
+            final var thread = Thread.currentThread();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.benchmark.utils.latency;
+
+import java.util.Arrays;
+
+/**
+ * Log-linear histogram of non-negative long values (nanoseconds in practice),
+ * same bucketing idea as HdrHistogram with fixed 2 significant digits precision.
+ * <p>
+ * Values below {@code SUB_BUCKET_COUNT} are counted exactly,
+ * every next power of two range is split into {@code SUB_BUCKET_COUNT / 2} equal buckets,
+ * so relative error is below 1/64 for any value.
+ * <p>
+ * Single writer only, recording is a couple of shifts and one array increment,
+ * no allocation. Readers from other threads may observe slightly stale counts.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT >> 1;
+    private static final int MAX_SHIFT = 63 - SUB_BUCKET_BITS;
+    private static final int BUCKETS = (MAX_SHIFT + 1) * SUB_BUCKET_HALF_COUNT + SUB_BUCKET_COUNT;
+
+    private final long[] counts = new long[BUCKETS];
+    private long totalCount;
+    private long maxValue;
+
+    public void record(final long value) {
+        final long clamped = Math.max(value, 0);
+        ++counts[indexOf(clamped)];
+        ++totalCount;
+        if (clamped > maxValue) {
+            maxValue = clamped;
+        }
+    }
+
+    public void add(final LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; ++i) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        maxValue = Math.max(maxValue, other.maxValue);
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        maxValue = 0;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public long getMaxValue() {
+        return maxValue;
+    }
+
+    /**
+     * @param percentile value in range [0, 100]
+     * @return highest value equivalent to the bucket holding requested percentile, 0 if histogram is empty
+     */
+    public long getValueAtPercentile(final double percentile) {
+        final long total = totalCount;
+        if (total == 0) {
+            return 0;
+        }
+        final long target = Math.max(1, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * total));
+        long accumulated = 0;
+        for (int i = 0; i < BUCKETS; ++i) {
+            accumulated += counts[i];
+            if (accumulated >= target) {
+                return Math.min(highestEquivalentValue(i), maxValue);
+            }
+        }
+        return maxValue;
+    }
+
+    private static int indexOf(final long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        final int shift = (63 - Long.numberOfLeadingZeros(value)) - (SUB_BUCKET_BITS - 1);
+        return shift * SUB_BUCKET_HALF_COUNT + (int) (value >>> shift);
+    }
+
+    private static long highestEquivalentValue(final int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        final int shift = index / SUB_BUCKET_HALF_COUNT - 1;
+        final long subBucket = index - (long) shift * SUB_BUCKET_HALF_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
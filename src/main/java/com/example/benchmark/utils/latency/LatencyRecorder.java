@@ -0,0 +1,87 @@
+package com.example.benchmark.utils.latency;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Process-wide latency recording point.
+ * <p>
+ * Long-lived benchmark threads write into their own {@link #local()} histogram, lock-free and allocation-free
+ * after the first call on a thread. Latency measured on other threads (client io threads, executor threads,
+ * virtual thread per request) goes to {@link #recordShared(long)}, a fixed set of histograms striped by thread,
+ * so the number of histograms doesn't grow with the number of threads ever seen.
+ * Histograms are merged on demand by {@link #snapshot()},
+ * normally once per iteration by {@link com.example.profiler.LatencyProfiler}.
+ */
+public final class LatencyRecorder {
+
+    private static final int MAX_SHARED_STRIPES = 64;
+
+    private static final Queue<LatencyHistogram> HISTOGRAMS = new ConcurrentLinkedQueue<>();
+    /**
+     * Power of two count of histograms, each one guarded by its monitor
+     */
+    private static final LatencyHistogram[] SHARED = new LatencyHistogram[Math.min(
+            MAX_SHARED_STRIPES,
+            Integer.highestOneBit(2 * Runtime.getRuntime().availableProcessors() - 1) << 1
+    )];
+
+    static {
+        for (int i = 0; i < SHARED.length; ++i) {
+            SHARED[i] = new LatencyHistogram();
+        }
+    }
+
+    private static final ThreadLocal<LatencyHistogram> LOCAL = ThreadLocal.withInitial(() -> {
+        final var histogram = new LatencyHistogram();
+        HISTOGRAMS.add(histogram);
+        return histogram;
+    });
+
+    private LatencyRecorder() {
+        throw new IllegalStateException();
+    }
+
+    /**
+     * Histogram of the current thread, may be cached by single-threaded callers
+     * to skip thread local lookup on every record.
+     * Histogram lives as long as the process, so only long-lived benchmark threads may take it.
+     */
+    public static LatencyHistogram local() {
+        return LOCAL.get();
+    }
+
+    /**
+     * Records latency from any thread into one of the shared histograms picked by thread id
+     */
+    public static void recordShared(final long latencyNanos) {
+        final var histogram = SHARED[(int) Thread.currentThread().getId() & (SHARED.length - 1)];
+        synchronized (histogram) {
+            histogram.record(latencyNanos);
+        }
+    }
+
+    public static LatencyHistogram snapshot() {
+        final var result = new LatencyHistogram();
+        for (final var histogram : HISTOGRAMS) {
+            result.add(histogram);
+        }
+        for (final var histogram : SHARED) {
+            synchronized (histogram) {
+                result.add(histogram);
+            }
+        }
+        return result;
+    }
+
+    public static void reset() {
+        for (final var histogram : HISTOGRAMS) {
+            histogram.reset();
+        }
+        for (final var histogram : SHARED) {
+            synchronized (histogram) {
+                histogram.reset();
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.benchmark.utils.queue;
+
+import java.util.AbstractQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consumer waiting shared by segment queues: {@code take} and timed {@code poll} retry
+ * {@link #pollNonEmpty()} according to {@link WaitStrategy}, then park on {@link WaiterStack}.
+ * Subclasses implement the attempt itself and MUST signal {@link #waiters} after every enqueued item.
+ */
+abstract class AbstractSegmentQueue<ITEM> extends AbstractQueue<ITEM> implements BatchDrainQueue<ITEM> {
+
+    final WaitStrategy waitStrategy;
+    /**
+     * Parked consumers, always empty with {@link WaitStrategy#BUSY_SPIN}
+     */
+    final WaiterStack waiters;
+
+    AbstractSegmentQueue(final WaitStrategy waitStrategy) {
+        this.waitStrategy = waitStrategy;
+        waiters = new WaiterStack();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public ITEM take() throws InterruptedException {
+        for (int attempt = 0; ; ++attempt) {
+            var pollResult = pollNonEmpty();
+            if (pollResult != Segment.RETRY) {
+                return (ITEM) pollResult;
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            if (!waitStrategy.shouldPark(attempt)) {
+                continue;
+            }
+            pollResult = park(false, 0L);
+            if (pollResult != Segment.RETRY) {
+                return (ITEM) pollResult;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public ITEM poll() {
+        final var pollResult = pollNonEmpty();
+        return pollResult != Segment.RETRY ? (ITEM) pollResult : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public ITEM poll(long timeout, TimeUnit unit) throws InterruptedException {
+        final long endNanos = System.nanoTime() + unit.toNanos(timeout);
+        for (int attempt = 0; System.nanoTime() < endNanos; ++attempt) {
+            var pollResult = pollNonEmpty();
+            if (pollResult != Segment.RETRY) {
+                return (ITEM) pollResult;
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            if (!waitStrategy.shouldPark(attempt)) {
+                continue;
+            }
+            pollResult = park(true, endNanos);
+            if (pollResult != Segment.RETRY) {
+                return (ITEM) pollResult;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Retries dequeue while queue is not empty, never waits for producers
+     *
+     * @return polled item, {@link Segment#RETRY} if queue is empty
+     */
+    abstract Object pollNonEmpty();
+
+    /**
+     * Parks current thread until producer signals new item, deadline passes or thread is interrupted.
+     *
+     * @return item polled right after waiter became visible to producers,
+     * {@link Segment#RETRY} if caller must retry polling
+     */
+    private Object park(final boolean timed, final long endNanos) throws InterruptedException {
+        final var waiter = waiters.push();
+        final var pollResult = pollNonEmpty();
+        if (pollResult != Segment.RETRY) {
+            waiters.cancel(waiter);
+            return pollResult;
+        }
+        waiters.await(waiter, timed, endNanos);
+        return Segment.RETRY;
+    }
+}
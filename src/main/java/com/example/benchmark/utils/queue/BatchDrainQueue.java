@@ -0,0 +1,19 @@
+package com.example.benchmark.utils.queue;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+
+/**
+ * {@link BlockingQueue} which passes drained items straight to consumer, without intermediate collection
+ */
+public interface BatchDrainQueue<ITEM> extends BlockingQueue<ITEM> {
+
+    /**
+     * Removes at most {@code maxElements} items available right now, segment queues claim
+     * whole run of items of a segment with single atomic operation.
+     * Consumer must not call back into the queue.
+     *
+     * @return number of items passed to consumer
+     */
+    int drainTo(final Consumer<? super ITEM> consumer, final int maxElements);
+}
@@ -3,33 +3,49 @@ package com.example.benchmark.utils.queue;
 import java.util.AbstractQueue;
 import java.util.Collection;
 import java.util.Iterator;
-import java.util.Optional;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 import org.openjdk.jmh.infra.Blackhole;
 
-public class CheatingQueue<ITEM> extends AbstractQueue<ITEM> implements BlockingQueue<ITEM> {
+/**
+ * Unbounded by default, bounded queue reserves place in {@code size} before enqueue,
+ * {@code offer} fails and {@code put} spins while it is full.
+ */
+public class CheatingQueue<ITEM> extends AbstractQueue<ITEM> implements BatchDrainQueue<ITEM> {
 
     public static final int DEFAULT_SEGMENT_SIZE = 8;
     public static final int DEFAULT_CPU_CONSUMING = 8;
+    public static final int UNBOUNDED = Integer.MAX_VALUE;
     private final AtomicReference<Segment<ITEM>> head;
     private final AtomicReference<Segment<ITEM>> tail;
     private final AtomicInteger size;
     private final int segmentSize;
     private final int cpuConsuming;
+    private final int capacity;
 
-    public CheatingQueue(final int segmentSize, final int cpuConsuming) {
+    /**
+     * @param capacity max items in queue, {@link #UNBOUNDED} for unbounded queue
+     */
+    public CheatingQueue(final int segmentSize, final int cpuConsuming, final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive, but found " + capacity);
+        }
         this.segmentSize = segmentSize;
         this.cpuConsuming = cpuConsuming;
+        this.capacity = capacity;
         size = new AtomicInteger(0);
         final Segment<ITEM> initNode = new Segment<>(this.segmentSize);
         head = new AtomicReference<>(initNode);
         tail = new AtomicReference<>(initNode);
     }
 
+    public CheatingQueue(final int segmentSize, final int cpuConsuming) {
+        this(segmentSize, cpuConsuming, UNBOUNDED);
+    }
+
     public CheatingQueue(final int segmentSize) {
         this(segmentSize, DEFAULT_CPU_CONSUMING);
     }
@@ -40,80 +56,89 @@ public class CheatingQueue<ITEM> extends AbstractQueue<ITEM> implements Blocking
 
     @Override
     public void put(ITEM t) throws InterruptedException {
-        while (true) {
-            if (tryOffer(t)) {
-                return;
+        while (!tryReserve()) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
             }
         }
+        enqueue(t);
     }
 
     @Override
     public boolean offer(ITEM t) {
-        while (true) {
-            if (tryOffer(t)) {
-                return true;
-            }
+        if (!tryReserve()) {
+            return false;
         }
+        enqueue(t);
+        return true;
     }
 
     @Override
     public boolean offer(ITEM t, long timeout, TimeUnit unit) throws InterruptedException {
         final long endNanos = System.nanoTime() + unit.toNanos(timeout);
-        while (System.nanoTime() < endNanos) {
-            if (tryOffer(t)) {
-                return true;
+        while (!tryReserve()) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            if (System.nanoTime() >= endNanos) {
+                return false;
             }
         }
-        return false;
+        enqueue(t);
+        return true;
     }
 
+    @SuppressWarnings("unchecked")
     @Override
     public ITEM take() throws InterruptedException {
         while (true) {
             final var pollResult = tryPoll();
-            if (pollResult == null) {
+            if (pollResult == Segment.RETRY) {
                 if (Thread.interrupted()) {
                     throw new InterruptedException();
                 }
                 continue;
             }
-            return pollResult.orElse(null);
+            return (ITEM) pollResult;
         }
     }
 
+    @SuppressWarnings("unchecked")
     @Override
     public ITEM poll() {
         while (!isEmpty()) {
             final var pollResult = tryPoll();
-            if (pollResult != null) {
-                return pollResult.orElse(null);
+            if (pollResult != Segment.RETRY) {
+                return (ITEM) pollResult;
             }
         }
         return null;
     }
 
+    @SuppressWarnings("unchecked")
     @Override
     public ITEM poll(long timeout, TimeUnit unit) throws InterruptedException {
         final long endNanos = System.nanoTime() + unit.toNanos(timeout);
         while (System.nanoTime() < endNanos) {
             final var pollResult = tryPoll();
-            if (pollResult == null) {
+            if (pollResult == Segment.RETRY) {
                 if (Thread.interrupted()) {
                     throw new InterruptedException();
                 }
                 continue;
             }
-            return pollResult.orElse(null);
+            return (ITEM) pollResult;
         }
         return null;
     }
 
+    @SuppressWarnings("unchecked")
     @Override
     public ITEM peek() {
         while (!isEmpty()) {
             final var peekResult = tryPeek();
-            if (peekResult != null) {
-                return peekResult.orElse(null);
+            if (peekResult != Segment.RETRY) {
+                return (ITEM) peekResult;
             }
         }
         return null;
@@ -131,43 +156,34 @@ public class CheatingQueue<ITEM> extends AbstractQueue<ITEM> implements Blocking
 
     @Override
     public int remainingCapacity() {
-        return Integer.MAX_VALUE;
+        if (capacity == UNBOUNDED) {
+            return Integer.MAX_VALUE;
+        }
+        return Math.max(0, capacity - size.get());
     }
 
     @Override
     public int drainTo(Collection<? super ITEM> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super ITEM> c, int maxElements) {
         if (c == this) {
             throw new IllegalArgumentException();
         }
-        Segment<ITEM> oldHead;
-        final var newHead = new Segment<ITEM>(segmentSize);
-        while (true) {
-            oldHead = head.get();
-            if (head.compareAndSet(oldHead, newHead)) {
-                tail.set(newHead);
-                break;
-            }
-        }
+        return drainTo(c::add, maxElements);
+    }
 
+    @Override
+    public int drainTo(Consumer<? super ITEM> consumer, int maxElements) {
         int count = 0;
-        var segment = oldHead;
-        while (segment != null) {
-            for (int index = segment.getDequeIdx(); index < segment.getEnqueueIdx() && index < segment.capacity(); ++index) {
-                final var getResult = segment.tryDeque(index);
-                if (getResult != null) {
-                    c.add(getResult.orElse(null));
-                }
-            }
-            segment = segment.getNext();
+        while (count < maxElements && !isEmpty()) {
+            count += tryDrain(consumer, maxElements - count);
         }
         return count;
     }
 
-    @Override
-    public int drainTo(Collection<? super ITEM> c, int maxElements) {
-        throw new UnsupportedOperationException();
-    }
-
     @Override
     public boolean isEmpty() {
         while (true) {
@@ -178,6 +194,10 @@ public class CheatingQueue<ITEM> extends AbstractQueue<ITEM> implements Blocking
                 if (next == null) {
                     return true;
                 }
+                if (!currentHead.isExhausted()) {
+                    // segment was filled while being checked, its tail items must not be skipped
+                    return false;
+                }
                 head.compareAndSet(currentHead, next);
             } else {
                 return false;
@@ -206,14 +226,40 @@ public class CheatingQueue<ITEM> extends AbstractQueue<ITEM> implements Blocking
                 return false;
             }
             tail.compareAndSet(currentTail, newTail);
-            size.getAndIncrement();
             return true;
         } else {
-            final boolean success = currentTail.tryEnqueue(enqueuePosition, item);
-            if (success) {
-                size.getAndIncrement();
+            return currentTail.tryEnqueue(enqueuePosition, item);
+        }
+    }
+
+    /**
+     * Reserves place for one item, size is incremented before item is enqueued,
+     * so bounded queue never holds more than capacity items
+     */
+    private boolean tryReserve() {
+        if (capacity == UNBOUNDED) {
+            size.getAndIncrement();
+            return true;
+        }
+        while (true) {
+            final int current = size.get();
+            if (current >= capacity) {
+                return false;
+            }
+            if (size.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Enqueues item into already reserved place
+     */
+    private void enqueue(final ITEM item) {
+        while (true) {
+            if (tryOffer(item)) {
+                return;
             }
-            return success;
         }
     }
 
@@ -221,9 +267,9 @@ public class CheatingQueue<ITEM> extends AbstractQueue<ITEM> implements Blocking
      * Makes single try to deque Item,
      * MUST be called with acquired lock only
      *
-     * @return null if poll failed, Optional.empty() if there is null value, Optional.of() otherwise
+     * @return polled item, {@link Segment#RETRY} if poll failed
      */
-    private Optional<ITEM> tryPoll() {
+    private Object tryPoll() {
         consumeCpu();
         final var currentHead = head.get();
         final int dequePosition = currentHead.getAndIncDequeIdx();
@@ -231,13 +277,13 @@ public class CheatingQueue<ITEM> extends AbstractQueue<ITEM> implements Blocking
             currentHead.getAndDecDequeIdx();
             final var next = currentHead.getNext();
             if (next == null) {
-                return null;
+                return Segment.RETRY;
             }
             head.compareAndSet(currentHead, next);
-            return null;
+            return Segment.RETRY;
         } else {
             final var success = currentHead.tryDeque(dequePosition);
-            if (success != null) {
+            if (success != Segment.RETRY) {
                 size.getAndDecrement();
             }
             return success;
@@ -245,28 +291,57 @@ public class CheatingQueue<ITEM> extends AbstractQueue<ITEM> implements Blocking
     }
 
     /**
-     * Makes single try to peek Item,
+     * Makes single try to deque run of available items of head segment
+     *
+     * @return number of items passed to consumer
+     */
+    @SuppressWarnings("unchecked")
+    private int tryDrain(final Consumer<? super ITEM> consumer, final int maxElements) {
+        consumeCpu();
+        final var currentHead = head.get();
+        final int available = currentHead.available();
+        if (available <= 0) {
+            return 0;
+        }
+        final int claimed = Math.min(available, maxElements);
+        final int start = currentHead.getAndAddDequeIdx(claimed);
+        final int end = Math.min(start + claimed, currentHead.capacity());
+        int count = 0;
+        try {
+            for (int index = start; index < end; ++index) {
+                final var result = currentHead.tryDeque(index);
+                if (result != Segment.RETRY) {
+                    ++count;
+                    consumer.accept((ITEM) result);
+                }
+            }
+        } finally {
+            size.addAndGet(-count);
+        }
+        return count;
+    }
+
+    /**
+     * Makes single try to peek Item, unlike {@link #tryPoll()} doesn't move deque index,
      * MUST be called with acquired lock only
      *
-     * @return null if peek failed, Optional.empty() if there is null value, Optional.of() otherwise
+     * @return head item, {@link Segment#RETRY} if peek failed
      */
-    private Optional<ITEM> tryPeek() {
+    private Object tryPeek() {
         consumeCpu();
         final var currentHead = head.get();
         final int dequePosition = currentHead.getDequeIdx();
         if (dequePosition >= currentHead.capacity()) {
             final var next = currentHead.getNext();
             if (next == null) {
-                return null;
+                return Segment.RETRY;
             }
             head.compareAndSet(currentHead, next);
-            return null;
+            return Segment.RETRY;
         } else {
-            final var result = currentHead.tryGet(dequePosition);
-            if (result == null) {
-                currentHead.tryIncDequeIdx(dequePosition);
-            }
-            return result;
+            // free slot is already reserved by producer which is about to fill it, so it must not be skipped,
+            // done slot is always behind deque index, so next try reads next position
+            return currentHead.tryGet(dequePosition);
         }
     }
 
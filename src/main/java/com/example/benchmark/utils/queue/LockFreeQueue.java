@@ -0,0 +1,257 @@
+package com.example.benchmark.utils.queue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * {@link NonBlockingQueue} without reader/writer lock and shared size counter,
+ * {@code offer}/{@code poll} touch only head/tail references and indices of their segment.
+ * <p>
+ * {@code drainTo} claims runs of items of a segment, {@code iterator} walks a snapshot of items
+ * present at the moment of the walk, {@code size} is computed from segment indices and is only an estimate
+ * under concurrent modification (same as for {@link java.util.concurrent.ConcurrentLinkedQueue}).
+ * Segments are never recycled: without a lock there is no moment when no thread may still access old segment.
+ */
+public class LockFreeQueue<ITEM> extends AbstractSegmentQueue<ITEM> {
+
+    public static final int DEFAULT_SEGMENT_SIZE = 64;
+
+    private final AtomicReference<Segment<ITEM>> head;
+    private final AtomicReference<Segment<ITEM>> tail;
+    private final int segmentSize;
+
+    public LockFreeQueue(final int segmentSize, final WaitStrategy waitStrategy) {
+        super(waitStrategy);
+        this.segmentSize = segmentSize;
+        final Segment<ITEM> initNode = new Segment<>(this.segmentSize);
+        head = new AtomicReference<>(initNode);
+        tail = new AtomicReference<>(initNode);
+    }
+
+    public LockFreeQueue(final int segmentSize) {
+        this(segmentSize, WaitStrategy.BUSY_SPIN);
+    }
+
+    public LockFreeQueue() {
+        this(DEFAULT_SEGMENT_SIZE);
+    }
+
+    @Override
+    public void put(ITEM t) throws InterruptedException {
+        offer(t);
+    }
+
+    @Override
+    public boolean offer(ITEM t) {
+        while (!tryOffer(t)) {
+            // retry
+        }
+        waiters.signal();
+        return true;
+    }
+
+    @Override
+    public boolean offer(ITEM t, long timeout, TimeUnit unit) throws InterruptedException {
+        return offer(t);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public ITEM peek() {
+        while (!isEmpty()) {
+            final var peekResult = tryPeek();
+            if (peekResult != Segment.RETRY) {
+                return (ITEM) peekResult;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Weakly consistent iterator over snapshot of items, doesn't support removal
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public Iterator<ITEM> iterator() {
+        final var c = new ArrayList<ITEM>();
+        var segment = head.get();
+        while (segment != null) {
+            final int end = Math.min(segment.getEnqueueIdx(), segment.capacity());
+            for (int index = segment.getDequeIdx(); index < end; ++index) {
+                final var getResult = segment.tryGet(index);
+                if (getResult != Segment.RETRY) {
+                    c.add((ITEM) getResult);
+                }
+            }
+            segment = segment.getNext();
+        }
+        return Collections.unmodifiableList(c).iterator();
+    }
+
+    @Override
+    public int size() {
+        long size = 0;
+        var segment = head.get();
+        while (segment != null) {
+            final int enqueued = Math.min(segment.getEnqueueIdx(), segment.capacity());
+            final int dequeued = Math.min(segment.getDequeIdx(), segment.capacity());
+            size += Math.max(0, enqueued - dequeued);
+            segment = segment.getNext();
+        }
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public int drainTo(Collection<? super ITEM> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super ITEM> c, int maxElements) {
+        if (c == this) {
+            throw new IllegalArgumentException();
+        }
+        return drainTo(c::add, maxElements);
+    }
+
+    @Override
+    public int drainTo(Consumer<? super ITEM> consumer, int maxElements) {
+        int count = 0;
+        while (count < maxElements && !isEmpty()) {
+            count += tryDrain(consumer, maxElements - count);
+        }
+        return count;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        while (true) {
+            final var currentHead = head.get();
+            if (currentHead.isEmpty()) {
+                final var next = currentHead.getNext();
+                if (next == null) {
+                    return true;
+                }
+                if (!currentHead.isExhausted()) {
+                    // segment was filled while being checked, its tail items must not be skipped
+                    return false;
+                }
+                head.compareAndSet(currentHead, next);
+            } else {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Makes single try to enqueue Item
+     *
+     * @return true if enqueued successfully, false otherwise.
+     */
+    private boolean tryOffer(final ITEM item) {
+        final var currentTail = tail.get();
+        final int enqueuePosition = currentTail.getAndIncEnqueueIdx();
+        if (enqueuePosition >= currentTail.capacity()) {
+            final var next = currentTail.getNext();
+            if (next != null) {
+                tail.compareAndSet(currentTail, next);
+                return false;
+            }
+            final var newTail = new Segment<ITEM>(segmentSize, item);
+            if (!currentTail.trySetNext(newTail)) {
+                return false;
+            }
+            tail.compareAndSet(currentTail, newTail);
+            return true;
+        } else {
+            return currentTail.tryEnqueue(enqueuePosition, item);
+        }
+    }
+
+    /**
+     * Makes single try to deque Item
+     *
+     * @return polled item, {@link Segment#RETRY} if poll failed
+     */
+    private Object tryPoll() {
+        final var currentHead = head.get();
+        final int dequePosition = currentHead.getAndIncDequeIdx();
+        if (dequePosition >= currentHead.capacity()) {
+            final var next = currentHead.getNext();
+            if (next != null) {
+                head.compareAndSet(currentHead, next);
+            }
+            return Segment.RETRY;
+        } else {
+            return currentHead.tryDeque(dequePosition);
+        }
+    }
+
+    /**
+     * Makes single try to deque run of available items of head segment
+     *
+     * @return number of items passed to consumer
+     */
+    @SuppressWarnings("unchecked")
+    private int tryDrain(final Consumer<? super ITEM> consumer, final int maxElements) {
+        final var currentHead = head.get();
+        final int available = currentHead.available();
+        if (available <= 0) {
+            return 0;
+        }
+        final int claimed = Math.min(available, maxElements);
+        final int start = currentHead.getAndAddDequeIdx(claimed);
+        final int end = Math.min(start + claimed, currentHead.capacity());
+        int count = 0;
+        for (int index = start; index < end; ++index) {
+            final var result = currentHead.tryDeque(index);
+            if (result != Segment.RETRY) {
+                ++count;
+                consumer.accept((ITEM) result);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Makes single try to peek Item, unlike {@link #tryPoll()} doesn't move deque index
+     *
+     * @return head item, {@link Segment#RETRY} if peek failed
+     */
+    private Object tryPeek() {
+        final var currentHead = head.get();
+        final int dequePosition = currentHead.getDequeIdx();
+        if (dequePosition >= currentHead.capacity()) {
+            final var next = currentHead.getNext();
+            if (next != null) {
+                head.compareAndSet(currentHead, next);
+            }
+            return Segment.RETRY;
+        } else {
+            // free slot is already reserved by producer which is about to fill it, so it must not be skipped,
+            // done slot is always behind deque index, so next try reads next position
+            return currentHead.tryGet(dequePosition);
+        }
+    }
+
+    @Override
+    Object pollNonEmpty() {
+        while (!isEmpty()) {
+            final var pollResult = tryPoll();
+            if (pollResult != Segment.RETRY) {
+                return pollResult;
+            }
+        }
+        return Segment.RETRY;
+    }
+}
@@ -1,12 +1,11 @@
 package com.example.benchmark.utils.queue;
 
 import java.util.Collection;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
 
 import org.jctools.queues.MpmcArrayQueue;
 
-public class MpmcArrayQueueAdapter<T> extends MpmcArrayQueue<T> implements BlockingQueue<T> {
+public class MpmcArrayQueueAdapter<T> extends MpmcArrayQueue<T> implements BatchDrainQueue<T> {
 
     public MpmcArrayQueueAdapter(int capacity) {
         super(capacity);
@@ -28,7 +27,9 @@ public class MpmcArrayQueueAdapter<T> extends MpmcArrayQueue<T> implements Block
     public T take() throws InterruptedException {
         T item;
         while ((item = this.poll()) == null) {
-            // continue
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
         }
         return item;
     }
@@ -56,6 +57,19 @@ public class MpmcArrayQueueAdapter<T> extends MpmcArrayQueue<T> implements Block
 
     @Override
     public int drainTo(Collection<? super T> c, int maxElements) {
-        throw new UnsupportedOperationException();
+        if (c == this) {
+            throw new IllegalArgumentException();
+        }
+        return drain(c::add, maxElements);
+    }
+
+    /**
+     * JCTools drain, every item is claimed with its own CAS, drain stops at a slot not yet filled by producer
+     * instead of spinning on it as {@link java.util.Queue#poll()} does.
+     * Consumer type is qualified, {@code Consumer} here is inherited {@link org.jctools.queues.MessagePassingQueue.Consumer}
+     */
+    @Override
+    public int drainTo(java.util.function.Consumer<? super T> consumer, int maxElements) {
+        return drain(consumer::accept, maxElements);
     }
 }
@@ -1,143 +1,126 @@
 package com.example.benchmark.utils.queue;
 
-import java.util.AbstractQueue;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
-import java.util.Optional;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
-public class NonBlockingQueue<ITEM> extends AbstractQueue<ITEM> implements BlockingQueue<ITEM> {
+/**
+ * Unbounded by default, bounded queue counts reserved and enqueued items in {@code size},
+ * so {@code offer} fails and {@code put} waits (spins or parks according to {@link WaitStrategy}) while it is full.
+ */
+public class NonBlockingQueue<ITEM> extends AbstractSegmentQueue<ITEM> {
+
+    public static final int DEFAULT_SEGMENT_SIZE = 64;
+    public static final int UNBOUNDED = Integer.MAX_VALUE;
+    /**
+     * Retired segments kept for recycling, the rest is left to GC.
+     * Busy consumers rarely leave the lock free for reclaiming, so the stock must outlast many segment switches
+     */
+    private static final int MAX_RETIRED_SEGMENTS = 1024;
 
-    private static final int DEFAULT_SEGMENT_SIZE = 8;
     private final AtomicReference<Segment<ITEM>> head;
     private final AtomicReference<Segment<ITEM>> tail;
     private final AtomicInteger size;
     private final AtomicInteger state;
     private final int segmentSize;
+    private final int capacity;
+    /**
+     * Producers parked on full bounded queue, always empty with {@link WaitStrategy#BUSY_SPIN}
+     */
+    private final WaiterStack producerWaiters;
+    private final boolean recycleSegments;
+    /**
+     * Segments left behind by head, pushed by any thread, taken only under full lock
+     */
+    private final AtomicReference<Segment<ITEM>> retiredSegments;
+    private final AtomicInteger retiredCount;
+    /**
+     * Reset segments ready for reuse, pushed only under full lock, popped only under light lock,
+     * so pop can't suffer from ABA
+     */
+    private final AtomicReference<Segment<ITEM>> freeSegments;
 
-    public NonBlockingQueue(final int segmentSize) {
+    /**
+     * @param capacity        max items in queue, {@link #UNBOUNDED} for unbounded queue
+     * @param recycleSegments reuse segments left behind by head instead of allocating new ones,
+     *                        segments are reset when queue is momentarily quiescent (no operation in progress),
+     *                        otherwise new segments are allocated
+     */
+    public NonBlockingQueue(final int segmentSize,
+                            final int capacity,
+                            final WaitStrategy waitStrategy,
+                            final boolean recycleSegments) {
+        super(waitStrategy);
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive, but found " + capacity);
+        }
         this.segmentSize = segmentSize;
+        this.capacity = capacity;
+        this.recycleSegments = recycleSegments;
+        retiredSegments = new AtomicReference<>(null);
+        retiredCount = new AtomicInteger(0);
+        freeSegments = new AtomicReference<>(null);
         size = new AtomicInteger(0);
         state = new AtomicInteger(0);
+        producerWaiters = new WaiterStack();
         final Segment<ITEM> initNode = new Segment<>(this.segmentSize);
         head = new AtomicReference<>(initNode);
         tail = new AtomicReference<>(initNode);
     }
 
-    public NonBlockingQueue() {
-        this(DEFAULT_SEGMENT_SIZE);
+    public NonBlockingQueue(final int segmentSize, final WaitStrategy waitStrategy, final boolean recycleSegments) {
+        this(segmentSize, UNBOUNDED, waitStrategy, recycleSegments);
     }
 
-    @Override
-    public void put(ITEM t) throws InterruptedException {
-        while (true) {
-            lightLockWait();
-            try {
-                if (tryOffer(t)) {
-                    return;
-                }
-            } finally {
-                lightLockRelease();
-            }
-        }
+    public NonBlockingQueue(final int segmentSize, final WaitStrategy waitStrategy) {
+        this(segmentSize, waitStrategy, false);
     }
 
-    @Override
-    public boolean offer(ITEM t) {
-        while (true) {
-            lightLockWait();
-            try {
-                if (tryOffer(t)) {
-                    return true;
-                }
-            } finally {
-                lightLockRelease();
-            }
-        }
+    public NonBlockingQueue(final int segmentSize) {
+        this(segmentSize, WaitStrategy.BUSY_SPIN);
     }
 
-    @Override
-    public boolean offer(ITEM t, long timeout, TimeUnit unit) throws InterruptedException {
-        final long endNanos = System.nanoTime() + unit.toNanos(timeout);
-        while (System.nanoTime() < endNanos) {
-            if (!lightLockTimeout(endNanos)) {
-                return false;
-            }
-            try {
-                if (tryOffer(t)) {
-                    return true;
-                }
-            } finally {
-                lightLockRelease();
-            }
-        }
-        return false;
+    public NonBlockingQueue() {
+        this(DEFAULT_SEGMENT_SIZE);
     }
 
     @Override
-    public ITEM take() throws InterruptedException {
-        while (true) {
-            lightLockWait();
-            try {
-                final var pollResult = tryPoll();
-                if (pollResult == null) {
-                    continue;
-                }
-                return pollResult.orElse(null);
-            } finally {
-                lightLockRelease();
-            }
-        }
+    public void put(ITEM t) throws InterruptedException {
+        reserve(false, 0L);
+        enqueue(t);
     }
 
     @Override
-    public ITEM poll() {
-        while (!isEmpty()) {
-            lightLockWait();
-            try {
-                final var pollResult = tryPoll();
-                if (pollResult != null) {
-                    return pollResult.orElse(null);
-                }
-            } finally {
-                lightLockRelease();
-            }
+    public boolean offer(ITEM t) {
+        if (!tryReserve()) {
+            return false;
         }
-        return null;
+        enqueue(t);
+        return true;
     }
 
     @Override
-    public ITEM poll(long timeout, TimeUnit unit) throws InterruptedException {
-        final long endNanos = System.nanoTime() + unit.toNanos(timeout);
-        while (System.nanoTime() < endNanos) {
-            if (!lightLockTimeout(endNanos)) {
-                return null;
-            }
-            try {
-                final var pollResult = tryPoll();
-                if (pollResult == null) {
-                    continue;
-                }
-                return pollResult.orElse(null);
-            } finally {
-                lightLockRelease();
-            }
+    public boolean offer(ITEM t, long timeout, TimeUnit unit) throws InterruptedException {
+        if (!reserve(true, System.nanoTime() + unit.toNanos(timeout))) {
+            return false;
         }
-        return null;
+        enqueue(t);
+        return true;
     }
 
+    @SuppressWarnings("unchecked")
     @Override
     public ITEM peek() {
         while (!isEmpty()) {
             lightLockWait();
             try {
                 final var peekResult = tryPeek();
-                if (peekResult != null) {
-                    return peekResult.orElse(null);
+                if (peekResult != Segment.RETRY) {
+                    return (ITEM) peekResult;
                 }
             } finally {
                 lightLockRelease();
@@ -146,6 +129,7 @@ public class NonBlockingQueue<ITEM> extends AbstractQueue<ITEM> implements Block
         return null;
     }
 
+    @SuppressWarnings("unchecked")
     @Override
     public Iterator<ITEM> iterator() {
         final var c = new ArrayList<ITEM>();
@@ -153,11 +137,11 @@ public class NonBlockingQueue<ITEM> extends AbstractQueue<ITEM> implements Block
         try {
             var segment = head.get();
             while (segment != null) {
-                head.set(segment);
-                for (int index = segment.getDequeIdx(); index < segment.getEnqueueIdx(); ++index) {
+                final int end = Math.min(segment.getEnqueueIdx(), segment.capacity());
+                for (int index = segment.getDequeIdx(); index < end; ++index) {
                     final var getResult = segment.tryGet(index);
-                    if (getResult != null) {
-                        c.add(getResult.orElse(null));
+                    if (getResult != Segment.RETRY) {
+                        c.add((ITEM) getResult);
                     }
                 }
                 segment = segment.getNext();
@@ -175,7 +159,10 @@ public class NonBlockingQueue<ITEM> extends AbstractQueue<ITEM> implements Block
 
     @Override
     public int remainingCapacity() {
-        return Integer.MAX_VALUE;
+        if (capacity == UNBOUNDED) {
+            return Integer.MAX_VALUE;
+        }
+        return Math.max(0, capacity - size.get());
     }
 
     @Override
@@ -188,25 +175,25 @@ public class NonBlockingQueue<ITEM> extends AbstractQueue<ITEM> implements Block
         if (c == this) {
             throw new IllegalArgumentException();
         }
-        fullLockWait();
+        return drainTo(c::add, maxElements);
+    }
+
+    /**
+     * Consumer is called under light lock, it must not wait for other threads using the queue
+     */
+    @Override
+    public int drainTo(Consumer<? super ITEM> consumer, int maxElements) {
         int count = 0;
-        try {
-            var segment = head.get();
-            while (segment != null && count < maxElements) {
-                head.set(segment);
-                for (int index = segment.getDequeIdx(); index < segment.getEnqueueIdx(); ++index) {
-                    final var getResult = segment.tryDeque(index);
-                    if (getResult != null) {
-                        c.add(getResult.orElse(null));
-                        if (++count == maxElements) {
-                            break;
-                        }
-                    }
-                }
-                segment = segment.getNext();
+        while (count < maxElements && !isEmpty()) {
+            lightLockWait();
+            final int drained;
+            try {
+                drained = tryDrain(consumer, maxElements - count);
+            } finally {
+                lightLockRelease();
             }
-        } finally {
-            fullLockRelease();
+            releaseCapacity(drained);
+            count += drained;
         }
         return count;
     }
@@ -222,7 +209,11 @@ public class NonBlockingQueue<ITEM> extends AbstractQueue<ITEM> implements Block
                     if (next == null) {
                         return true;
                     }
-                    head.compareAndSet(currentHead, next);
+                    if (!currentHead.isExhausted()) {
+                        // segment was filled while being checked, its tail items must not be skipped
+                        return false;
+                    }
+                    advanceHead(currentHead, next);
                 } else {
                     return false;
                 }
@@ -232,6 +223,28 @@ public class NonBlockingQueue<ITEM> extends AbstractQueue<ITEM> implements Block
         }
     }
 
+    /**
+     * Enqueues item into already reserved place, light lock is short-living, so it's never given up
+     */
+    private void enqueue(final ITEM item) {
+        while (true) {
+            lightLockWait();
+            final boolean offered;
+            try {
+                offered = tryOffer(item);
+            } finally {
+                lightLockRelease();
+            }
+            if (offered) {
+                waiters.signal();
+                if (recycleSegments) {
+                    reclaimSegments();
+                }
+                return;
+            }
+        }
+    }
+
     /**
      * Makes single try to enqueue Item,
      * MUST be called with acquired lock only
@@ -247,19 +260,15 @@ public class NonBlockingQueue<ITEM> extends AbstractQueue<ITEM> implements Block
                 tail.compareAndSet(currentTail, next);
                 return false;
             }
-            final var newTail = new Segment<ITEM>(segmentSize, item);
+            final var newTail = newSegment(item);
             if (!currentTail.trySetNext(newTail)) {
+                retire(newTail);
                 return false;
             }
             tail.compareAndSet(currentTail, newTail);
-            size.getAndIncrement();
             return true;
         } else {
-            final boolean success = currentTail.tryEnqueue(enqueuePosition, item);
-            if (success) {
-                size.getAndIncrement();
-            }
-            return success;
+            return currentTail.tryEnqueue(enqueuePosition, item);
         }
     }
 
@@ -267,21 +276,21 @@ public class NonBlockingQueue<ITEM> extends AbstractQueue<ITEM> implements Block
      * Makes single try to deque Item,
      * MUST be called with acquired lock only
      *
-     * @return null if poll failed, Optional.empty() if there is null value, Optional.of() otherwise
+     * @return polled item, {@link Segment#RETRY} if poll failed
      */
-    private Optional<ITEM> tryPoll() {
+    private Object tryPoll() {
         final var currentHead = head.get();
         final int dequePosition = currentHead.getAndIncDequeIdx();
         if (dequePosition >= currentHead.capacity()) {
             final var next = currentHead.getNext();
             if (next == null) {
-                return null;
+                return Segment.RETRY;
             }
-            head.compareAndSet(currentHead, next);
-            return null;
+            advanceHead(currentHead, next);
+            return Segment.RETRY;
         } else {
             final var success = currentHead.tryDeque(dequePosition);
-            if (success != null) {
+            if (success != Segment.RETRY) {
                 size.getAndDecrement();
             }
             return success;
@@ -289,45 +298,218 @@ public class NonBlockingQueue<ITEM> extends AbstractQueue<ITEM> implements Block
     }
 
     /**
-     * Makes single try to peek Item,
+     * Makes single try to deque run of available items of head segment,
+     * MUST be called with acquired lock only
+     *
+     * @return number of items passed to consumer
+     */
+    @SuppressWarnings("unchecked")
+    private int tryDrain(final Consumer<? super ITEM> consumer, final int maxElements) {
+        final var currentHead = head.get();
+        final int available = currentHead.available();
+        if (available <= 0) {
+            return 0;
+        }
+        final int claimed = Math.min(available, maxElements);
+        final int start = currentHead.getAndAddDequeIdx(claimed);
+        final int end = Math.min(start + claimed, currentHead.capacity());
+        int count = 0;
+        try {
+            for (int index = start; index < end; ++index) {
+                final var result = currentHead.tryDeque(index);
+                if (result != Segment.RETRY) {
+                    ++count;
+                    consumer.accept((ITEM) result);
+                }
+            }
+        } finally {
+            size.addAndGet(-count);
+        }
+        return count;
+    }
+
+    /**
+     * Makes single try to peek Item, unlike {@link #tryPoll()} doesn't move deque index,
      * MUST be called with acquired lock only
      *
-     * @return null if peek failed, Optional.empty() if there is null value, Optional.of() otherwise
+     * @return head item, {@link Segment#RETRY} if peek failed
      */
-    private Optional<ITEM> tryPeek() {
+    private Object tryPeek() {
         final var currentHead = head.get();
         final int dequePosition = currentHead.getDequeIdx();
         if (dequePosition >= currentHead.capacity()) {
             final var next = currentHead.getNext();
             if (next == null) {
-                return null;
+                return Segment.RETRY;
             }
-            head.compareAndSet(currentHead, next);
-            return null;
+            advanceHead(currentHead, next);
+            return Segment.RETRY;
         } else {
-            final var result = currentHead.tryGet(dequePosition);
-            if (result == null) {
-                currentHead.tryIncDequeIdx(dequePosition);
+            // free slot is already reserved by producer which is about to fill it, so it must not be skipped,
+            // done slot is always behind deque index, so next try reads next position
+            return currentHead.tryGet(dequePosition);
+        }
+    }
+
+    /**
+     * MUST be called with acquired lock only
+     */
+    private void advanceHead(final Segment<ITEM> currentHead, final Segment<ITEM> next) {
+        if (head.compareAndSet(currentHead, next)) {
+            retire(currentHead);
+        }
+    }
+
+    /**
+     * MUST be called with acquired lock only
+     */
+    private Segment<ITEM> newSegment(final ITEM item) {
+        if (recycleSegments) {
+            Segment<ITEM> segment;
+            while ((segment = freeSegments.get()) != null) {
+                if (freeSegments.compareAndSet(segment, segment.nextFree)) {
+                    segment.nextFree = null;
+                    segment.init(item);
+                    return segment;
+                }
             }
-            return result;
         }
+        return new Segment<>(segmentSize, item);
     }
 
-    private void lightLockWait() {
+    private void retire(final Segment<ITEM> segment) {
+        if (!recycleSegments || retiredCount.getAndIncrement() >= MAX_RETIRED_SEGMENTS) {
+            return;
+        }
         while (true) {
-            if (lightLockTry()) {
+            final var top = retiredSegments.get();
+            segment.nextFree = top;
+            if (retiredSegments.compareAndSet(top, segment)) {
                 return;
             }
         }
     }
 
-    private boolean lightLockTimeout(final long endNanos) {
-        while (System.nanoTime() < endNanos) {
-            if (lightLockTry()) {
+    /**
+     * Moves retired segments to free ones if there are no free segments left
+     * and nobody holds the lock right now, never waits.
+     * MUST be called without acquired lock.
+     */
+    private void reclaimSegments() {
+        if (freeSegments.get() != null || retiredSegments.get() == null) {
+            return;
+        }
+        if (!state.compareAndSet(0, -Integer.MAX_VALUE)) {
+            return;
+        }
+        try {
+            // tail may lag behind head, it must not point to retired segment
+            var currentTail = tail.get();
+            Segment<ITEM> next;
+            while ((next = currentTail.getNext()) != null) {
+                currentTail = next;
+            }
+            tail.set(currentTail);
+
+            var segment = retiredSegments.getAndSet(null);
+            retiredCount.set(0);
+            while (segment != null) {
+                final var nextRetired = segment.nextFree;
+                segment.reset();
+                segment.nextFree = freeSegments.get();
+                freeSegments.set(segment);
+                segment = nextRetired;
+            }
+        } finally {
+            fullLockRelease();
+        }
+    }
+
+    @Override
+    Object pollNonEmpty() {
+        while (!isEmpty()) {
+            lightLockWait();
+            final Object pollResult;
+            try {
+                pollResult = tryPoll();
+            } finally {
+                lightLockRelease();
+            }
+            if (pollResult != Segment.RETRY) {
+                releaseCapacity(1);
+                return pollResult;
+            }
+        }
+        return Segment.RETRY;
+    }
+
+    /**
+     * Reserves place for one item, size is incremented before item is enqueued,
+     * so bounded queue never holds more than capacity items
+     */
+    private boolean tryReserve() {
+        if (capacity == UNBOUNDED) {
+            size.getAndIncrement();
+            return true;
+        }
+        while (true) {
+            final int current = size.get();
+            if (current >= capacity) {
+                return false;
+            }
+            if (size.compareAndSet(current, current + 1)) {
                 return true;
             }
         }
-        return false;
+    }
+
+    /**
+     * Waits for place in bounded queue same way consumers wait for items
+     *
+     * @return false if deadline passed
+     */
+    private boolean reserve(final boolean timed, final long endNanos) throws InterruptedException {
+        for (int attempt = 0; ; ++attempt) {
+            if (tryReserve()) {
+                return true;
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            if (timed && System.nanoTime() >= endNanos) {
+                return false;
+            }
+            if (!waitStrategy.shouldPark(attempt)) {
+                continue;
+            }
+            final var waiter = producerWaiters.push();
+            if (tryReserve()) {
+                producerWaiters.cancel(waiter);
+                return true;
+            }
+            producerWaiters.await(waiter, timed, endNanos);
+        }
+    }
+
+    /**
+     * Wakes up producers waiting for place, size is already decremented by dequeue
+     */
+    private void releaseCapacity(final int count) {
+        if (capacity == UNBOUNDED) {
+            return;
+        }
+        for (int i = 0; i < count && producerWaiters.signal(); ++i) {
+            // signal next producer
+        }
+    }
+
+    private void lightLockWait() {
+        for (int attempt = 0; ; ++attempt) {
+            if (lightLockTry()) {
+                return;
+            }
+            waitStrategy.backOff(attempt);
+        }
     }
 
     private boolean lightLockTry() {
@@ -376,7 +558,8 @@ public class NonBlockingQueue<ITEM> extends AbstractQueue<ITEM> implements Block
     }
 
     private void fullLockRelease() {
-        if (!state.compareAndSet(-Integer.MAX_VALUE, 0)) {
+        // light lock attempts may be in the middle of their increment/decrement, so add instead of set
+        if (state.getAndAdd(Integer.MAX_VALUE) >= 0) {
             throw new IllegalStateException("Trying to release non-acquired lock");
         }
     }
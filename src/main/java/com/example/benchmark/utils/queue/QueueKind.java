@@ -0,0 +1,82 @@
+package com.example.benchmark.utils.queue;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.LinkedTransferQueue;
+
+/**
+ * Work queues for {@link java.util.concurrent.ThreadPoolExecutor},
+ * bounded ones are large enough to never reject client tasks.
+ */
+public enum QueueKind {
+
+    LINKED_BLOCKING_QUEUE() {
+
+        @Override
+        public <T> BlockingQueue<T> create() {
+            return new LinkedBlockingQueue<>();
+        }
+    },
+
+    ARRAY_BLOCKING_QUEUE() {
+
+        @Override
+        public <T> BlockingQueue<T> create() {
+            return new ArrayBlockingQueue<>(BOUNDED_CAPACITY);
+        }
+    },
+
+    LINKED_TRANSFER_QUEUE() {
+
+        @Override
+        public <T> BlockingQueue<T> create() {
+            return new LinkedTransferQueue<>();
+        }
+    },
+
+    NON_BLOCKING_QUEUE() {
+
+        @Override
+        public <T> BlockingQueue<T> create() {
+            return new NonBlockingQueue<>();
+        }
+    },
+
+    NON_BLOCKING_PARKING_QUEUE() {
+
+        @Override
+        public <T> BlockingQueue<T> create() {
+            return new NonBlockingQueue<>(NonBlockingQueue.DEFAULT_SEGMENT_SIZE, WaitStrategy.SPIN_THEN_PARK);
+        }
+    },
+
+    LOCK_FREE_QUEUE() {
+
+        @Override
+        public <T> BlockingQueue<T> create() {
+            return new LockFreeQueue<>(LockFreeQueue.DEFAULT_SEGMENT_SIZE, WaitStrategy.SPIN_THEN_PARK);
+        }
+    },
+
+    CHEATING_QUEUE() {
+
+        @Override
+        public <T> BlockingQueue<T> create() {
+            return new CheatingQueue<>();
+        }
+    },
+
+    MPMC_ARRAY_QUEUE() {
+
+        @Override
+        public <T> BlockingQueue<T> create() {
+            return new MpmcArrayQueueAdapter<>(BOUNDED_CAPACITY);
+        }
+    },
+    ;
+
+    public static final int BOUNDED_CAPACITY = 1 << 16;
+
+    public abstract <T> BlockingQueue<T> create();
+}
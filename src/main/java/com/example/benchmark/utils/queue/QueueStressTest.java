@@ -0,0 +1,330 @@
+package com.example.benchmark.utils.queue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Randomized multi-producer/multi-consumer stress test of the queues.
+ * <p>
+ * Producers offer items tagged with producer id and sequence number (offer, put, timed offer),
+ * consumers mix poll, timed poll, {@code drainTo} into collection and consumer, {@code peek} and iteration.
+ * Every round checks that each offered item was taken exactly once, that every consumer got items
+ * of every producer in offer order, that peeked and iterated items were really offered and are ordered,
+ * and that queue is empty when all threads stop.
+ * <p>
+ * {@code java -cp benchmarks.jar com.example.benchmark.utils.queue.QueueStressTest [seconds per queue] [threads] [queue names]},
+ * uses all cores by default, exits with exception on the first violation.
+ */
+public class QueueStressTest {
+
+    private static final int ROUND_MILLIS = 500;
+    /**
+     * Consumers fail if they take nothing during this time while some items are still not taken
+     */
+    private static final long DRAIN_TIMEOUT_MILLIS = 10_000;
+    /**
+     * Producers wait while backlog exceeds it, so iteration stays cheap
+     */
+    private static final int MAX_BACKLOG = 1024;
+    private static final int SEQ_BITS = 40;
+    private static final int MAX_BATCH = 64;
+    private static final int BOUNDED_CAPACITY = 64;
+
+    private static final Map<String, Supplier<BlockingQueue<Long>>> QUEUES = new LinkedHashMap<>();
+
+    static {
+        QUEUES.put("NON_BLOCKING_QUEUE", () -> new NonBlockingQueue<>(8));
+        QUEUES.put("NON_BLOCKING_PARKING_QUEUE", () -> new NonBlockingQueue<>(8, WaitStrategy.SPIN_THEN_PARK));
+        QUEUES.put("NON_BLOCKING_RECYCLING_QUEUE", () -> new NonBlockingQueue<>(8, WaitStrategy.SPIN_THEN_PARK, true));
+        QUEUES.put("BOUNDED_NON_BLOCKING_QUEUE",
+                () -> new NonBlockingQueue<>(8, BOUNDED_CAPACITY, WaitStrategy.SPIN_THEN_PARK, true));
+        QUEUES.put("LOCK_FREE_QUEUE", () -> new LockFreeQueue<>(8, WaitStrategy.SPIN_THEN_PARK));
+        QUEUES.put("CHEATING_QUEUE", () -> new CheatingQueue<>(8, 0));
+        QUEUES.put("BOUNDED_CHEATING_QUEUE", () -> new CheatingQueue<>(8, 0, BOUNDED_CAPACITY));
+        QUEUES.put("MPMC_ARRAY_QUEUE", () -> new MpmcArrayQueueAdapter<>(BOUNDED_CAPACITY));
+    }
+
+    public static void main(String[] args) throws Exception {
+        final int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 30;
+        final int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        final List<String> names = args.length > 2 ? Arrays.asList(args).subList(2, args.length) : List.copyOf(QUEUES.keySet());
+        final int producers = Math.max(1, threads / 2);
+        final int consumers = Math.max(1, threads - producers);
+
+        for (final String name : names) {
+            final var factory = QUEUES.get(name);
+            if (factory == null) {
+                throw new IllegalArgumentException("Unknown queue name '" + name + "', known are " + QUEUES.keySet());
+            }
+            final long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+            long rounds = 0;
+            long items = 0;
+            while (System.nanoTime() < end) {
+                items += new Round(name, factory.get(), producers, consumers).run();
+                ++rounds;
+            }
+            System.out.println(name + ": OK, " + rounds + " rounds, " + items + " items, "
+                    + producers + " producers, " + consumers + " consumers");
+        }
+    }
+
+    private static final class Round {
+
+        private final String name;
+        private final BlockingQueue<Long> queue;
+        private final int producers;
+        private final int consumers;
+        /**
+         * Sequence numbers each producer is about to offer, set before offer, so any seen item is below it
+         */
+        private final AtomicLongArray published;
+        private final long[] produced;
+        private final AtomicLong offered = new AtomicLong();
+        private final AtomicLong consumed = new AtomicLong();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private volatile boolean producing = true;
+        private volatile long producedTotal = -1;
+
+        private Round(final String name, final BlockingQueue<Long> queue, final int producers, final int consumers) {
+            this.name = name;
+            this.queue = queue;
+            this.producers = producers;
+            this.consumers = consumers;
+            published = new AtomicLongArray(producers);
+            produced = new long[producers];
+        }
+
+        /**
+         * @return number of items passed through the queue
+         */
+        private long run() throws InterruptedException {
+            final var producerThreads = new ArrayList<Thread>();
+            for (int id = 0; id < producers; ++id) {
+                final int producerId = id;
+                producerThreads.add(start(() -> produce(producerId)));
+            }
+            final var consumerStates = new ArrayList<ConsumerState>();
+            final var consumerThreads = new ArrayList<Thread>();
+            for (int id = 0; id < consumers; ++id) {
+                final var consumerState = new ConsumerState(producers);
+                consumerStates.add(consumerState);
+                consumerThreads.add(start(() -> consume(consumerState)));
+            }
+
+            Thread.sleep(ROUND_MILLIS);
+            producing = false;
+            for (final var thread : producerThreads) {
+                // producer may wait in put forever if consumers stopped on failure
+                while (thread.isAlive()) {
+                    thread.join(100);
+                    if (failure.get() != null) {
+                        thread.interrupt();
+                    }
+                }
+            }
+            producedTotal = Arrays.stream(produced).sum();
+            for (final var thread : consumerThreads) {
+                thread.join();
+            }
+            if (failure.get() != null) {
+                throw new IllegalStateException(name + ": " + failure.get().getMessage(), failure.get());
+            }
+            verify(consumerStates);
+            return producedTotal;
+        }
+
+        private Thread start(final Runnable runnable) {
+            final var thread = new Thread(() -> {
+                try {
+                    runnable.run();
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                    producing = false;
+                }
+            });
+            thread.start();
+            return thread;
+        }
+
+        private void produce(final int producerId) {
+            final var random = ThreadLocalRandom.current();
+            long seq = 0;
+            try {
+                while (producing) {
+                    if (offered.get() - consumed.get() > MAX_BACKLOG) {
+                        Thread.onSpinWait();
+                        continue;
+                    }
+                    final Long item = ((long) producerId << SEQ_BITS) | seq;
+                    published.set(producerId, seq + 1);
+                    final int op = random.nextInt(10);
+                    if (op < 6) {
+                        while (!queue.offer(item)) {
+                            if (!producing) {
+                                return;
+                            }
+                            Thread.onSpinWait();
+                        }
+                    } else if (op < 8) {
+                        queue.put(item);
+                    } else {
+                        while (!queue.offer(item, 100, TimeUnit.MICROSECONDS)) {
+                            if (!producing) {
+                                return;
+                            }
+                        }
+                    }
+                    offered.incrementAndGet();
+                    ++seq;
+                }
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            } finally {
+                produced[producerId] = seq;
+            }
+        }
+
+        private void consume(final ConsumerState state) {
+            final var random = ThreadLocalRandom.current();
+            final var buffer = new ArrayList<Long>(MAX_BATCH);
+            final long[] iterated = new long[producers];
+            boolean iteratorSupported = true;
+            long deadline = Long.MAX_VALUE;
+            long lastConsumed = -1;
+            try {
+                while (failure.get() == null) {
+                    final long total = producedTotal;
+                    if (total >= 0) {
+                        final long current = consumed.get();
+                        if (current == total) {
+                            return;
+                        }
+                        if (current != lastConsumed) {
+                            lastConsumed = current;
+                            deadline = System.currentTimeMillis() + DRAIN_TIMEOUT_MILLIS;
+                        } else if (System.currentTimeMillis() > deadline) {
+                            throw new IllegalStateException("Lost " + (total - consumed.get()) + " of " + total
+                                    + " items, size = " + queue.size() + ", isEmpty = " + queue.isEmpty());
+                        }
+                    }
+                    final int op = random.nextInt(100);
+                    if (op < 50) {
+                        take(state, queue.poll());
+                    } else if (op < 60) {
+                        take(state, queue.poll(100, TimeUnit.MICROSECONDS));
+                    } else if (op < 70) {
+                        queue.drainTo(buffer, 1 + random.nextInt(MAX_BATCH));
+                        for (final Long item : buffer) {
+                            take(state, item);
+                        }
+                        buffer.clear();
+                    } else if (op < 80 && queue instanceof BatchDrainQueue<Long> batchQueue) {
+                        batchQueue.drainTo(item -> take(state, item), 1 + random.nextInt(MAX_BATCH));
+                    } else if (op < 95) {
+                        checkSeen(queue.peek());
+                    } else if (iteratorSupported) {
+                        try {
+                            checkIteration(iterated);
+                        } catch (UnsupportedOperationException e) {
+                            iteratorSupported = false;
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private void take(final ConsumerState state, final Long item) {
+            if (item == null) {
+                return;
+            }
+            checkSeen(item);
+            final int producerId = (int) (item >>> SEQ_BITS);
+            final long seq = item & ((1L << SEQ_BITS) - 1);
+            if (seq <= state.lastSeq[producerId]) {
+                throw new IllegalStateException("Producer " + producerId + " FIFO violated: got " + seq
+                        + " after " + state.lastSeq[producerId]);
+            }
+            state.lastSeq[producerId] = seq;
+            state.taken[producerId].set(Math.toIntExact(seq));
+            consumed.incrementAndGet();
+        }
+
+        private void checkSeen(final Long item) {
+            if (item == null) {
+                return;
+            }
+            final int producerId = (int) (item >>> SEQ_BITS);
+            final long seq = item & ((1L << SEQ_BITS) - 1);
+            if (producerId >= producers || seq >= published.get(producerId)) {
+                throw new IllegalStateException("Item " + producerId + ":" + seq + " was never offered");
+            }
+        }
+
+        /**
+         * Iteration goes in queue order, so items of each producer must be ordered as well
+         */
+        private void checkIteration(final long[] lastSeq) {
+            Arrays.fill(lastSeq, -1);
+            for (final Long item : queue) {
+                checkSeen(item);
+                final int producerId = (int) (item >>> SEQ_BITS);
+                final long seq = item & ((1L << SEQ_BITS) - 1);
+                if (seq <= lastSeq[producerId]) {
+                    throw new IllegalStateException("Iteration of producer " + producerId + " items is out of order: "
+                            + seq + " after " + lastSeq[producerId]);
+                }
+                lastSeq[producerId] = seq;
+            }
+        }
+
+        private void verify(final List<ConsumerState> consumerStates) {
+            for (int producerId = 0; producerId < producers; ++producerId) {
+                final var all = new BitSet();
+                for (final var state : consumerStates) {
+                    if (all.intersects(state.taken[producerId])) {
+                        final var duplicates = (BitSet) all.clone();
+                        duplicates.and(state.taken[producerId]);
+                        throw new IllegalStateException(name + ": items of producer " + producerId
+                                + " taken twice " + duplicates.stream().limit(10).boxed().toList());
+                    }
+                    all.or(state.taken[producerId]);
+                }
+                if (all.cardinality() != produced[producerId] || all.length() != produced[producerId]) {
+                    throw new IllegalStateException(name + ": producer " + producerId + " offered "
+                            + produced[producerId] + " items, but " + all.cardinality() + " taken");
+                }
+            }
+            if (!queue.isEmpty() || queue.size() != 0 || queue.poll() != null) {
+                throw new IllegalStateException(name + ": queue is not empty after round, size = " + queue.size());
+            }
+        }
+    }
+
+    private static final class ConsumerState {
+
+        private final long[] lastSeq;
+        private final BitSet[] taken;
+
+        private ConsumerState(final int producers) {
+            lastSeq = new long[producers];
+            Arrays.fill(lastSeq, -1);
+            taken = new BitSet[producers];
+            for (int id = 0; id < producers; ++id) {
+                taken[id] = new BitSet();
+            }
+        }
+    }
+}
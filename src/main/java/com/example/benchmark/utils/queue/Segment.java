@@ -1,96 +1,169 @@
 package com.example.benchmark.utils.queue;
 
-import java.util.Optional;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicReference;
-import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/*
+ * Enqueue and deque indices are written by different threads, so they are kept on different cache lines.
+ * JVM lays out superclass fields before subclass ones, padding classes keep field order fixed.
+ */
+
+@SuppressWarnings("unused")
+abstract class SegmentPad0 {
+    long p00, p01, p02, p03, p04, p05, p06, p07;
+}
+
+abstract class SegmentEnqueueIdx extends SegmentPad0 {
+    volatile int enqueueIdx;
+}
+
+@SuppressWarnings("unused")
+abstract class SegmentPad1 extends SegmentEnqueueIdx {
+    long p10, p11, p12, p13, p14, p15, p16, p17;
+}
+
+abstract class SegmentDequeIdx extends SegmentPad1 {
+    volatile int dequeIdx;
+}
+
+@SuppressWarnings("unused")
+abstract class SegmentPad2 extends SegmentDequeIdx {
+    long p20, p21, p22, p23, p24, p25, p26, p27;
+}
 
-class Segment<ITEM> {
+class Segment<ITEM> extends SegmentPad2 {
     private static final Object FREE = new Object();
     private static final Object DONE = new Object();
+    /**
+     * Returned by {@link #tryDeque(int)} and {@link #tryGet(int)} when slot holds no item, so caller must retry,
+     * any other result is the item itself (null included)
+     */
+    static final Object RETRY = new Object();
+
+    private static final VarHandle ITEMS = MethodHandles.arrayElementVarHandle(Object[].class);
+    private static final VarHandle NEXT;
+    private static final VarHandle ENQUEUE_IDX;
+    private static final VarHandle DEQUE_IDX;
+
+    static {
+        try {
+            final var lookup = MethodHandles.lookup();
+            NEXT = lookup.findVarHandle(Segment.class, "next", Segment.class);
+            ENQUEUE_IDX = lookup.findVarHandle(SegmentEnqueueIdx.class, "enqueueIdx", int.class);
+            DEQUE_IDX = lookup.findVarHandle(SegmentDequeIdx.class, "dequeIdx", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
 
-    private final AtomicReferenceArray<Object> items;
-    private final AtomicReference<Segment<ITEM>> next;
-    private final AtomicInteger enqueueIdx;
-    private final AtomicInteger dequeIdx;
+    private final Object[] items;
+    private volatile Segment<ITEM> next;
+    /**
+     * Link in retired or free segments stack of the queue, unrelated to {@link #next}
+     */
+    Segment<ITEM> nextFree;
 
     Segment(final int size) {
-        items = new AtomicReferenceArray<>(size);
-        for (int i = 0; i < size; ++i) {
-            items.set(i, FREE);
-        }
-        next = new AtomicReference<>(null);
-        enqueueIdx = new AtomicInteger(0);
-        dequeIdx = new AtomicInteger(0);
+        items = new Object[size];
+        Arrays.fill(items, FREE);
     }
 
     Segment(final int size, final ITEM item) {
         this(size);
-        items.set(0, item);
-        enqueueIdx.incrementAndGet();
+        init(item);
+    }
+
+    /**
+     * Puts first item into empty segment, segment must not be published yet
+     */
+    void init(final ITEM item) {
+        items[0] = item;
+        enqueueIdx = 1;
+    }
+
+    /**
+     * Makes segment empty again, MUST be called only when no other thread can access it
+     */
+    void reset() {
+        Arrays.fill(items, FREE);
+        nextFree = null;
+        next = null;
+        dequeIdx = 0;
+        enqueueIdx = 0;
     }
 
     boolean tryEnqueue(final int index, final ITEM value) {
-        return items.compareAndSet(index, FREE, value);
+        return ITEMS.compareAndSet(items, index, FREE, (Object) value);
     }
 
-    Optional<ITEM> tryDeque(final int index) {
-        final var result = items.getAndSet(index, DONE);
-        if (result != FREE && result != DONE) {
-            //noinspection unchecked
-            return Optional.ofNullable((ITEM) result);
-        } else {
-            return null;
-        }
+    Object tryDeque(final int index) {
+        final var result = ITEMS.getAndSet(items, index, DONE);
+        return result != FREE && result != DONE ? result : RETRY;
     }
 
-    Optional<ITEM> tryGet(final int index) {
-        final var result = items.get(index);
-        if (result != FREE && result != DONE) {
-            //noinspection unchecked
-            return Optional.ofNullable((ITEM) result);
-        } else {
-            return null;
-        }
+    Object tryGet(final int index) {
+        final var result = ITEMS.getVolatile(items, index);
+        return result != FREE && result != DONE ? result : RETRY;
     }
 
     boolean trySetNext(final Segment<ITEM> segment) {
-        return next.compareAndSet(null, segment);
+        return NEXT.compareAndSet(this, (Segment<ITEM>) null, segment);
     }
 
     Segment<ITEM> getNext() {
-        return next.get();
+        return next;
     }
 
     int getEnqueueIdx() {
-        return enqueueIdx.get();
+        return enqueueIdx;
     }
 
     int getAndIncEnqueueIdx() {
-        return enqueueIdx.getAndIncrement();
+        return (int) ENQUEUE_IDX.getAndAdd(this, 1);
     }
 
     int getDequeIdx() {
-        return dequeIdx.get();
+        return dequeIdx;
     }
 
     int getAndIncDequeIdx() {
-        return dequeIdx.getAndIncrement();
+        return (int) DEQUE_IDX.getAndAdd(this, 1);
     }
 
-    int getAndDecDequeIdx() {
-        return dequeIdx.getAndDecrement();
+    /**
+     * Claims {@code count} positions at once, positions beyond capacity are claimed as well
+     * and must be ignored by caller, same as with {@link #getAndIncDequeIdx()}
+     */
+    int getAndAddDequeIdx(final int count) {
+        return (int) DEQUE_IDX.getAndAdd(this, count);
+    }
+
+    /**
+     * Positions which producers have already claimed and consumers not yet, some of them may be still in progress
+     */
+    int available() {
+        return Math.min(enqueueIdx, items.length) - dequeIdx;
     }
 
-    boolean tryIncDequeIdx(int expected) {
-        return dequeIdx.compareAndSet(expected, expected + 1);
+    int getAndDecDequeIdx() {
+        return (int) DEQUE_IDX.getAndAdd(this, -1);
     }
 
     boolean isEmpty() {
-        return dequeIdx.get() >= enqueueIdx.get() || dequeIdx.get() >= items.length();
+        final int deque = dequeIdx;
+        return deque >= enqueueIdx || deque >= items.length;
+    }
+
+    /**
+     * All positions are handed out to consumers, segment may be unlinked from queue.
+     * Unlike {@link #isEmpty()} stays true once became true, so it's safe to check before reading {@link #getNext()}
+     */
+    boolean isExhausted() {
+        return dequeIdx >= items.length;
     }
 
     int capacity() {
-        return items.length();
+        return items.length;
     }
 }
@@ -0,0 +1,77 @@
+package com.example.benchmark.utils.queue;
+
+/**
+ * What a thread does while queue has nothing for it
+ */
+public enum WaitStrategy {
+
+    /**
+     * Retry immediately, lowest latency, but every waiting thread burns its core
+     */
+    BUSY_SPIN() {
+
+        @Override
+        boolean shouldPark(final int attempt) {
+            return false;
+        }
+
+        @Override
+        void backOff(final int attempt) {
+            // retry immediately
+        }
+    },
+
+    /**
+     * Retry for a bounded number of attempts, then with {@link Thread#onSpinWait()},
+     * then park until producer unparks the thread
+     */
+    SPIN_THEN_PARK() {
+
+        @Override
+        boolean shouldPark(final int attempt) {
+            if (attempt < SPIN_TRIES) {
+                return false;
+            }
+            if (attempt < SPIN_WAIT_TRIES) {
+                Thread.onSpinWait();
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        void backOff(final int attempt) {
+            if (attempt < SPIN_TRIES) {
+                return;
+            }
+            if (attempt < SPIN_WAIT_TRIES) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+    },
+    ;
+
+    /**
+     * Failed attempts retried immediately
+     */
+    private static final int SPIN_TRIES = 64;
+    /**
+     * Failed attempts retried after {@link Thread#onSpinWait()}
+     */
+    private static final int SPIN_WAIT_TRIES = SPIN_TRIES + 256;
+
+    /**
+     * Called after failed attempt to get an item
+     *
+     * @return true if consumer should park on {@link WaiterStack} instead of retrying
+     */
+    abstract boolean shouldPark(final int attempt);
+
+    /**
+     * Called after failed attempt to get short-living internal lock,
+     * holder never waits for anything, so thread gives up its core instead of parking
+     */
+    abstract void backOff(final int attempt);
+}
@@ -0,0 +1,110 @@
+package com.example.benchmark.utils.queue;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Treiber stack of parked threads, each item (or freed place of bounded queue) unparks one thread.
+ * <p>
+ * Consumer pushes its waiter, re-checks queue (item could be offered before producers were able to see the waiter)
+ * and parks until signalled. Consumer leaving on its own cancels the waiter, if signal was already delivered
+ * to it, the signal is passed on, so no item stays in the queue while there are parked consumers.
+ * Producers waiting for place in bounded queue use separate stack the same way.
+ */
+class WaiterStack {
+
+    private final AtomicReference<Waiter> top = new AtomicReference<>(null);
+
+    Waiter push() {
+        final var waiter = new Waiter(Thread.currentThread());
+        while (true) {
+            final var current = top.get();
+            if (current != null && current.state == Waiter.CANCELLED) {
+                top.compareAndSet(current, current.next); // unlink cancelled waiters on the way
+                continue;
+            }
+            waiter.next = current;
+            if (top.compareAndSet(current, waiter)) {
+                return waiter;
+            }
+        }
+    }
+
+    /**
+     * Parks current thread until waiter is signalled, deadline passes or thread is interrupted,
+     * waiter is cancelled in two last cases
+     */
+    void await(final Waiter waiter, final boolean timed, final long endNanos) throws InterruptedException {
+        while (waiter.state == Waiter.WAITING) {
+            if (timed) {
+                final long remaining = endNanos - System.nanoTime();
+                if (remaining <= 0) {
+                    cancel(waiter);
+                    return;
+                }
+                LockSupport.parkNanos(this, remaining);
+            } else {
+                LockSupport.park(this);
+            }
+            if (Thread.interrupted()) {
+                cancel(waiter);
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    void cancel(final Waiter waiter) {
+        if (!waiter.cancel()) {
+            // signal was already delivered to this waiter, pass it on to not lose item
+            signal();
+        }
+    }
+
+    /**
+     * Wakes up single parked thread, if any, skipping cancelled ones
+     *
+     * @return false if there was no thread to wake up
+     */
+    boolean signal() {
+        while (true) {
+            final var current = top.get();
+            if (current == null) {
+                return false;
+            }
+            if (!top.compareAndSet(current, current.next)) {
+                continue;
+            }
+            if (current.signal()) {
+                LockSupport.unpark(current.thread);
+                return true;
+            }
+        }
+    }
+
+    static final class Waiter {
+
+        private static final int WAITING = 0;
+        private static final int SIGNALLED = 1;
+        private static final int CANCELLED = 2;
+
+        private static final AtomicIntegerFieldUpdater<Waiter> STATE =
+                AtomicIntegerFieldUpdater.newUpdater(Waiter.class, "state");
+
+        private final Thread thread;
+        private Waiter next;
+        private volatile int state = WAITING;
+
+        private Waiter(final Thread thread) {
+            this.thread = thread;
+        }
+
+        private boolean signal() {
+            return STATE.compareAndSet(this, WAITING, SIGNALLED);
+        }
+
+        private boolean cancel() {
+            return STATE.compareAndSet(this, WAITING, CANCELLED);
+        }
+    }
+}
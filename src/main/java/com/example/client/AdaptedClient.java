@@ -3,8 +3,11 @@ package com.example.client;
 import com.example.client.impl.ApacheClientAdapter;
 import com.example.client.impl.AsyncClientAdapter;
 import com.example.client.impl.BaselineClientAdapter;
+import com.example.client.impl.ExecutorKind;
 import com.example.client.impl.JavaClientAdapter;
 import com.example.client.impl.JettyClientAdapter;
+import com.example.client.impl.RawClientAdapter;
+import com.example.client.impl.VirtualThreads;
 
 public enum AdaptedClient {
 
@@ -16,6 +19,17 @@ public enum AdaptedClient {
         }
     },
 
+    /**
+     * Blocking client with a virtual thread per request, {@code ioThreads} is not used
+     */
+    BASELINE_VIRTUAL_CLIENT() {
+
+        @Override
+        public ClientAdapter<?, ?> createClient(ClientConfiguration configuration) {
+            return new BaselineClientAdapter(configuration, VirtualThreads.newVirtualThreadPerTaskExecutor());
+        }
+    },
+
     JAVA_CLIENT() {
 
         @Override
@@ -24,6 +38,30 @@ public enum AdaptedClient {
         }
     },
 
+    JAVA_VIRTUAL_CLIENT() {
+
+        @Override
+        public ClientAdapter<?, ?> createClient(ClientConfiguration configuration) {
+            return new JavaClientAdapter(configuration, ExecutorKind.VIRTUAL);
+        }
+    },
+
+    JAVA_FORK_JOIN_CLIENT() {
+
+        @Override
+        public ClientAdapter<?, ?> createClient(ClientConfiguration configuration) {
+            return new JavaClientAdapter(configuration, ExecutorKind.FORK_JOIN);
+        }
+    },
+
+    JAVA_DIRECT_CLIENT() {
+
+        @Override
+        public ClientAdapter<?, ?> createClient(ClientConfiguration configuration) {
+            return new JavaClientAdapter(configuration, ExecutorKind.DIRECT);
+        }
+    },
+
     ASYNC_CLIENT() {
 
         @Override
@@ -47,6 +85,14 @@ public enum AdaptedClient {
             return new JettyClientAdapter(configuration);
         }
     },
+
+    RAW_NIO_CLIENT() {
+
+        @Override
+        public ClientAdapter<?, ?> createClient(ClientConfiguration configuration) {
+            return new RawClientAdapter(configuration);
+        }
+    },
     ;
 
     public abstract ClientAdapter<?, ?> createClient(final ClientConfiguration configuration);
@@ -0,0 +1,92 @@
+package com.example.client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Aggregate completion of {@link ClientAdapter#sendAll}, fed by per-request {@link #callback(int)}-s.
+ * <p>
+ * Completes as soon as {@link BatchPolicy} required count of responses succeeded,
+ * or exceptionally with the failure after which required count can't be reached anymore.
+ * Requests still in flight at that moment are not cancelled, their responses are dropped,
+ * {@link #settled()} tells when the last of them is done.
+ */
+public class BatchCompletion<RESPONSE_TYPE> extends CompletableFuture<BatchResult<RESPONSE_TYPE>> {
+
+    private final AtomicReferenceArray<RESPONSE_TYPE> responses;
+    private final int required;
+    private final AtomicInteger succeeded = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicInteger done = new AtomicInteger();
+    private final CompletableFuture<Void> settled = new CompletableFuture<>();
+
+    public BatchCompletion(final int batchSize, final BatchPolicy policy) {
+        this.responses = new AtomicReferenceArray<>(batchSize);
+        this.required = policy.required(batchSize);
+        if (required < 0 || required > batchSize) {
+            throw new IllegalArgumentException(
+                    "Required responses count must be in [0, " + batchSize + "], but found " + required
+            );
+        }
+        if (required == 0) {
+            complete(new BatchResult<>(Collections.emptyList(), 0, 0));
+        }
+        if (batchSize == 0) {
+            settled.complete(null);
+        }
+    }
+
+    /**
+     * @return future completed when every request of the batch has succeeded or failed
+     */
+    public CompletableFuture<Void> settled() {
+        return settled;
+    }
+
+    /**
+     * @return callback of request with given index in batch
+     */
+    public ResponseCallback<RESPONSE_TYPE> callback(final int index) {
+        return new ResponseCallback<>() {
+
+            @Override
+            public void completed(final RESPONSE_TYPE response) {
+                responses.set(index, response);
+                if (succeeded.incrementAndGet() == required) {
+                    complete(snapshot());
+                }
+                settle();
+            }
+
+            @Override
+            public void failed(final Throwable error) {
+                if (failed.incrementAndGet() == responses.length() - required + 1) {
+                    completeExceptionally(error);
+                }
+                settle();
+            }
+        };
+    }
+
+    private void settle() {
+        if (done.incrementAndGet() == responses.length()) {
+            settled.complete(null);
+        }
+    }
+
+    private BatchResult<RESPONSE_TYPE> snapshot() {
+        final var list = new ArrayList<RESPONSE_TYPE>(responses.length());
+        int count = 0;
+        for (int i = 0; i < responses.length(); ++i) {
+            final var response = responses.get(i);
+            if (response != null) {
+                ++count;
+            }
+            list.add(response);
+        }
+        return new BatchResult<>(Collections.unmodifiableList(list), count, failed.get());
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.client;
+
+/**
+ * How many successful responses complete batch sent with {@link ClientAdapter#sendAll}
+ */
+@FunctionalInterface
+public interface BatchPolicy {
+
+    /**
+     * @return successful responses required out of {@code batchSize}, at most {@code batchSize}
+     */
+    int required(final int batchSize);
+
+    static BatchPolicy all() {
+        return (batchSize) -> batchSize;
+    }
+
+    /**
+     * Majority of the batch, nothing for empty batch
+     */
+    static BatchPolicy quorum() {
+        return (batchSize) -> Math.min(batchSize, batchSize / 2 + 1);
+    }
+
+    /**
+     * First {@code count} responses, or the whole batch if it is smaller
+     */
+    static BatchPolicy first(final int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Required responses count must be positive, but found " + count);
+        }
+        return (batchSize) -> Math.min(count, batchSize);
+    }
+}
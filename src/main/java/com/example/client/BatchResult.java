@@ -0,0 +1,17 @@
+package com.example.client;
+
+import java.util.List;
+
+/**
+ * Responses of batch at the moment it completed
+ *
+ * @param responses responses in request order, {@code null} for failed requests and ones still in flight
+ * @param succeeded count of non-null responses
+ * @param failed    count of failed requests
+ */
+public record BatchResult<RESPONSE_TYPE>(
+        List<RESPONSE_TYPE> responses,
+        int succeeded,
+        int failed
+) {
+}
@@ -0,0 +1,21 @@
+package com.example.client;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Receives response body chunk by chunk as client library reads it, instead of whole body array.
+ * <p>
+ * Chunks of single response come sequentially, possibly from different library threads.
+ * Chunk is only valid during the call, sink must copy what it needs and may consume the buffer.
+ */
+@FunctionalInterface
+public interface BodySink {
+
+    /**
+     * Drops body without looking at it, adapters may use library native discarding
+     */
+    BodySink DISCARD = (content) -> {
+    };
+
+    void onContent(final ByteBuffer content);
+}
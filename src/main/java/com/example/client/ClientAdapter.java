@@ -1,5 +1,6 @@
 package com.example.client;
 
+import java.util.List;
 import java.util.concurrent.Future;
 
 import com.example.client.model.ClientRequest;
@@ -9,12 +10,34 @@ public interface ClientAdapter<REQUEST_TYPE, RESPONSE_TYPE> {
 
     REQUEST_TYPE mapRequest(final ClientRequest clientRequest);
 
+    /**
+     * Maps request for repeated sends, by default request is mapped on every send.
+     * Returned request must be immutable and thread-safe.
+     */
+    default PreparedRequest<REQUEST_TYPE> prepare(final ClientRequest clientRequest) {
+        return () -> mapRequest(clientRequest);
+    }
+
     @SuppressWarnings("unchecked")
     default ClientResponse mapResponseUnchecked(final Object response) {
         return mapResponse((RESPONSE_TYPE) response);
     }
 
-    ClientResponse mapResponse(final RESPONSE_TYPE response);
+    @SuppressWarnings("unchecked")
+    default ClientResponse mapResponseUnchecked(final Object response, final ClientResponse target) {
+        return mapResponse((RESPONSE_TYPE) response, target);
+    }
+
+    default ClientResponse mapResponse(final RESPONSE_TYPE response) {
+        return mapResponse(response, new ClientResponse());
+    }
+
+    /**
+     * Fills caller holder in place, content is not copied if library response exposes it as array.
+     *
+     * @return {@code target}
+     */
+    ClientResponse mapResponse(final RESPONSE_TYPE response, final ClientResponse target);
 
     @SuppressWarnings("unchecked")
     default Future<?> sendUnchecked(final Object request) {
@@ -23,5 +46,64 @@ public interface ClientAdapter<REQUEST_TYPE, RESPONSE_TYPE> {
 
     Future<RESPONSE_TYPE> send(final REQUEST_TYPE request);
 
+    @SuppressWarnings("unchecked")
+    default void sendUnchecked(final Object request, final ResponseCallback<Object> callback) {
+        send((REQUEST_TYPE) request, callback);
+    }
+
+    /**
+     * Sends request and notifies callback on completion
+     * using library native completion hook, without any intermediate future.
+     * Callback may be invoked from library io thread, so it must not block.
+     */
+    void send(final REQUEST_TYPE request, final ResponseCallback<? super RESPONSE_TYPE> callback);
+
+    @SuppressWarnings("unchecked")
+    default void streamUnchecked(final Object request,
+                                 final BodySink sink,
+                                 final ClientResponse target,
+                                 final ResponseCallback<? super ClientResponse> callback) {
+        stream((REQUEST_TYPE) request, sink, target, callback);
+    }
+
+    /**
+     * Sends request and passes response body to sink through library streaming hook,
+     * so body is never materialized into single array.
+     * After the last chunk status is set to {@code target} (with {@code null} content)
+     * and callback gets {@code target}, it has the same threading rules as {@link #send(Object, ResponseCallback)} one.
+     *
+     * @param sink   body consumer, {@link BodySink#DISCARD} to drop body
+     * @param target holder filled on completion, caller must not touch it until callback is invoked
+     */
+    void stream(final REQUEST_TYPE request,
+                final BodySink sink,
+                final ClientResponse target,
+                final ResponseCallback<? super ClientResponse> callback);
+
+    @SuppressWarnings("unchecked")
+    default BatchCompletion<?> sendAllUnchecked(final List<?> requests,
+                                                final BatchPolicy policy) {
+        return sendAll((List<REQUEST_TYPE>) requests, policy);
+    }
+
+    /**
+     * Sends all requests at once and completes when {@code policy} is satisfied, see {@link BatchCompletion}.
+     * By default every request is sent on its own with {@link #send(Object, ResponseCallback)},
+     * adapters override it where library can share writes or connection acquisition between requests.
+     */
+    default BatchCompletion<RESPONSE_TYPE> sendAll(final List<REQUEST_TYPE> requests,
+                                                   final BatchPolicy policy) {
+        final var batch = new BatchCompletion<RESPONSE_TYPE>(requests.size(), policy);
+        for (int i = 0; i < requests.size(); ++i) {
+            final var callback = batch.callback(i);
+            try {
+                send(requests.get(i), callback);
+            } catch (Exception e) {
+                callback.failed(e);
+            }
+        }
+        return batch;
+    }
+
     void shutdown() throws Exception;
 }
@@ -1,6 +1,167 @@
 package com.example.client;
 
+import java.time.Duration;
+
+/**
+ * Client settings, adapters map every setting their library supports and ignore the rest.
+ * Zero sizes and null durations keep library defaults.
+ *
+ * @param maxConnections                  connections over all routes
+ * @param maxConnectionsPerRoute          connections to single host and port
+ * @param keepAliveTtl                    max lifetime of pooled connection
+ * @param connectTimeout                  connection establishment timeout
+ * @param responseTimeout                 time to wait for response after request is sent
+ * @param sendBufferSize                  socket {@code SO_SNDBUF}
+ * @param receiveBufferSize               socket {@code SO_RCVBUF}
+ * @param responseBufferSize              buffer response is read into by client
+ * @param selectors                       NIO selectors of Jetty client transport
+ * @param maxRequestsQueuedPerDestination requests waiting for connection in Jetty client, excess ones are rejected
+ * @param connectionPoolType              Jetty client connection pool
+ */
 public record ClientConfiguration(
-        int ioThreads
+        int ioThreads,
+        int maxConnections,
+        int maxConnectionsPerRoute,
+        Duration keepAliveTtl,
+        Duration connectTimeout,
+        Duration responseTimeout,
+        int sendBufferSize,
+        int receiveBufferSize,
+        boolean tcpNoDelay,
+        int responseBufferSize,
+        int selectors,
+        int maxRequestsQueuedPerDestination,
+        ConnectionPoolType connectionPoolType
 ) {
+
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+    public static final int DEFAULT_SELECTORS = 1;
+    public static final int DEFAULT_MAX_REQUESTS_QUEUED_PER_DESTINATION = 4096;
+
+    public ClientConfiguration(final int ioThreads) {
+        this(builder(ioThreads));
+    }
+
+    private ClientConfiguration(final Builder builder) {
+        this(
+                builder.ioThreads,
+                builder.maxConnections,
+                builder.maxConnectionsPerRoute,
+                builder.keepAliveTtl,
+                builder.connectTimeout,
+                builder.responseTimeout,
+                builder.sendBufferSize,
+                builder.receiveBufferSize,
+                builder.tcpNoDelay,
+                builder.responseBufferSize,
+                builder.selectors,
+                builder.maxRequestsQueuedPerDestination,
+                builder.connectionPoolType
+        );
+    }
+
+    public static Builder builder(final int ioThreads) {
+        return new Builder(ioThreads);
+    }
+
+    public Builder toBuilder() {
+        return builder(ioThreads)
+                .maxConnections(maxConnections)
+                .maxConnectionsPerRoute(maxConnectionsPerRoute)
+                .keepAliveTtl(keepAliveTtl)
+                .connectTimeout(connectTimeout)
+                .responseTimeout(responseTimeout)
+                .sendBufferSize(sendBufferSize)
+                .receiveBufferSize(receiveBufferSize)
+                .tcpNoDelay(tcpNoDelay)
+                .responseBufferSize(responseBufferSize)
+                .selectors(selectors)
+                .maxRequestsQueuedPerDestination(maxRequestsQueuedPerDestination)
+                .connectionPoolType(connectionPoolType);
+    }
+
+    public static final class Builder {
+
+        private final int ioThreads;
+        private int maxConnections = UNLIMITED;
+        private int maxConnectionsPerRoute = UNLIMITED;
+        private Duration keepAliveTtl;
+        private Duration connectTimeout;
+        private Duration responseTimeout;
+        private int sendBufferSize;
+        private int receiveBufferSize;
+        private boolean tcpNoDelay = true;
+        private int responseBufferSize;
+        private int selectors = DEFAULT_SELECTORS;
+        private int maxRequestsQueuedPerDestination = DEFAULT_MAX_REQUESTS_QUEUED_PER_DESTINATION;
+        private ConnectionPoolType connectionPoolType = ConnectionPoolType.DUPLEX;
+
+        private Builder(final int ioThreads) {
+            this.ioThreads = ioThreads;
+        }
+
+        public Builder maxConnections(final int maxConnections) {
+            this.maxConnections = maxConnections;
+            return this;
+        }
+
+        public Builder maxConnectionsPerRoute(final int maxConnectionsPerRoute) {
+            this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+            return this;
+        }
+
+        public Builder keepAliveTtl(final Duration keepAliveTtl) {
+            this.keepAliveTtl = keepAliveTtl;
+            return this;
+        }
+
+        public Builder connectTimeout(final Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        public Builder responseTimeout(final Duration responseTimeout) {
+            this.responseTimeout = responseTimeout;
+            return this;
+        }
+
+        public Builder sendBufferSize(final int sendBufferSize) {
+            this.sendBufferSize = sendBufferSize;
+            return this;
+        }
+
+        public Builder receiveBufferSize(final int receiveBufferSize) {
+            this.receiveBufferSize = receiveBufferSize;
+            return this;
+        }
+
+        public Builder tcpNoDelay(final boolean tcpNoDelay) {
+            this.tcpNoDelay = tcpNoDelay;
+            return this;
+        }
+
+        public Builder responseBufferSize(final int responseBufferSize) {
+            this.responseBufferSize = responseBufferSize;
+            return this;
+        }
+
+        public Builder selectors(final int selectors) {
+            this.selectors = selectors;
+            return this;
+        }
+
+        public Builder maxRequestsQueuedPerDestination(final int maxRequestsQueuedPerDestination) {
+            this.maxRequestsQueuedPerDestination = maxRequestsQueuedPerDestination;
+            return this;
+        }
+
+        public Builder connectionPoolType(final ConnectionPoolType connectionPoolType) {
+            this.connectionPoolType = connectionPoolType;
+            return this;
+        }
+
+        public ClientConfiguration build() {
+            return new ClientConfiguration(this);
+        }
+    }
 }
@@ -0,0 +1,30 @@
+package com.example.client;
+
+/**
+ * Jetty client connection pool, other clients have single built-in pool
+ */
+public enum ConnectionPoolType {
+
+    /**
+     * Idle connections are reused in LIFO order, one request per connection
+     */
+    DUPLEX,
+
+    /**
+     * Same as {@link #DUPLEX} for HTTP/1.1, connection is shared by concurrent requests for HTTP/2
+     */
+    MULTIPLEX,
+
+    /**
+     * Connections are used in turn, all of them are kept warm.
+     * Pool opens new connection on every acquire until {@code maxConnectionsPerRoute} is reached,
+     * so it requires limited one
+     */
+    ROUND_ROBIN,
+
+    /**
+     * Random idle connection is used
+     */
+    RANDOM,
+    ;
+}
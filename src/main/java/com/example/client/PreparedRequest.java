@@ -0,0 +1,14 @@
+package com.example.client;
+
+/**
+ * Request mapped once by {@link ClientAdapter#prepare} and sent any number of times from any thread.
+ * <p>
+ * Holds everything that can be computed ahead of sending (parsed uri, encoded head, body content),
+ * each call returns library request ready to send. Immutable library requests are returned as is,
+ * single-use ones are assembled from the prepared parts.
+ */
+@FunctionalInterface
+public interface PreparedRequest<REQUEST_TYPE> {
+
+    REQUEST_TYPE request();
+}
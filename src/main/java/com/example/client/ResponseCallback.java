@@ -0,0 +1,8 @@
+package com.example.client;
+
+public interface ResponseCallback<RESPONSE_TYPE> {
+
+    void completed(final RESPONSE_TYPE response);
+
+    void failed(final Throwable error);
+}
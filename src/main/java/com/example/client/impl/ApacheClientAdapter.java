@@ -1,19 +1,38 @@
 package com.example.client.impl;
 
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.Future;
 
+import com.example.client.BodySink;
 import com.example.client.ClientAdapter;
 import com.example.client.ClientConfiguration;
+import com.example.client.PreparedRequest;
+import com.example.client.ResponseCallback;
 import com.example.client.model.ClientRequest;
 import com.example.client.model.ClientResponse;
+import org.apache.hc.client5.http.async.methods.SimpleBody;
 import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
 import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestProducer;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
 import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
 import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
 import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.concurrent.FutureCallback;
 import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.Method;
+import org.apache.hc.core5.http.config.Http1Config;
+import org.apache.hc.core5.http.message.BasicHeader;
+import org.apache.hc.core5.http.nio.entity.AbstractBinResponseConsumer;
 import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
 import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 
 public class ApacheClientAdapter implements ClientAdapter<SimpleHttpRequest, SimpleHttpResponse> {
 
@@ -24,33 +43,79 @@ public class ApacheClientAdapter implements ClientAdapter<SimpleHttpRequest, Sim
     }
 
     public ApacheClientAdapter(final ClientConfiguration configuration, final PoolConcurrencyPolicy pollPolicy) {
+        final var reactorConfig = IOReactorConfig.custom()
+                .setIoThreadCount(configuration.ioThreads())
+                .setTcpNoDelay(configuration.tcpNoDelay());
+        if (configuration.sendBufferSize() > 0) {
+            reactorConfig.setSndBufSize(configuration.sendBufferSize());
+        }
+        if (configuration.receiveBufferSize() > 0) {
+            reactorConfig.setRcvBufSize(configuration.receiveBufferSize());
+        }
+        final var connectionConfig = ConnectionConfig.custom();
+        if (configuration.connectTimeout() != null) {
+            connectionConfig.setConnectTimeout(Timeout.of(configuration.connectTimeout()));
+        }
+        if (configuration.keepAliveTtl() != null) {
+            connectionConfig.setTimeToLive(TimeValue.of(configuration.keepAliveTtl()));
+        }
+        final var requestConfig = RequestConfig.custom();
+        if (configuration.responseTimeout() != null) {
+            requestConfig.setResponseTimeout(Timeout.of(configuration.responseTimeout()));
+        }
+        final var http1Config = Http1Config.custom();
+        if (configuration.responseBufferSize() > 0) {
+            http1Config.setBufferSize(configuration.responseBufferSize());
+        }
         this.client = HttpAsyncClients.custom()
-                .setIOReactorConfig(
-                        IOReactorConfig.custom()
-                                .setIoThreadCount(configuration.ioThreads())
-                                .build()
-                )
+                .setIOReactorConfig(reactorConfig.build())
                 .setConnectionManager(
                         PoolingAsyncClientConnectionManagerBuilder.create()
                                 .setPoolConcurrencyPolicy(pollPolicy)
-                                .setMaxConnTotal(Integer.MAX_VALUE)
-                                .setMaxConnPerRoute(Integer.MAX_VALUE)
+                                .setMaxConnTotal(configuration.maxConnections())
+                                .setMaxConnPerRoute(configuration.maxConnectionsPerRoute())
+                                .setDefaultConnectionConfig(connectionConfig.build())
                                 .build()
                 )
+                .setDefaultRequestConfig(requestConfig.build())
+                .setHttp1Config(http1Config.build())
                 .build();
         client.start();
     }
 
     @Override
     public SimpleHttpRequest mapRequest(ClientRequest clientRequest) {
-        final var request = SimpleHttpRequest.create(clientRequest.getMethod(), clientRequest.getUrl());
-        clientRequest.getBody().ifPresent((body) -> request.setBody(body, ContentType.APPLICATION_OCTET_STREAM));
-        return request;
+        return prepare(clientRequest).request();
+    }
+
+    /**
+     * {@link SimpleHttpRequest} is mutable, so only parsed uri, headers and body are shared between sends
+     */
+    @Override
+    public PreparedRequest<SimpleHttpRequest> prepare(ClientRequest clientRequest) {
+        final Method method = Method.valueOf(clientRequest.getMethod().name());
+        final URI uri = URI.create(clientRequest.getUrl());
+        final Header[] headers = clientRequest.getHeaders().stream()
+                .map((header) -> new BasicHeader(header.getName(), header.getValue()))
+                .toArray(Header[]::new);
+        final SimpleBody body = clientRequest.hasBody()
+                ? SimpleBody.create(clientRequest.getBodyBytes(), ContentType.APPLICATION_OCTET_STREAM)
+                : null;
+        return () -> {
+            final var request = SimpleHttpRequest.create(method, uri);
+            for (final Header header : headers) {
+                request.addHeader(header);
+            }
+            if (body != null) {
+                request.setBody(body);
+            }
+            return request;
+        };
     }
 
     @Override
-    public ClientResponse mapResponse(SimpleHttpResponse response) {
-        return new ClientResponse(response.getCode(), response.getBodyBytes());
+    public ClientResponse mapResponse(SimpleHttpResponse response, ClientResponse target) {
+        return target.set(response.getCode(), response.getBodyBytes());
     }
 
     @Override
@@ -58,6 +123,70 @@ public class ApacheClientAdapter implements ClientAdapter<SimpleHttpRequest, Sim
         return client.execute(request, null);
     }
 
+    @Override
+    public void send(SimpleHttpRequest request, ResponseCallback<? super SimpleHttpResponse> callback) {
+        client.execute(request, futureCallback(callback));
+    }
+
+    @Override
+    public void stream(SimpleHttpRequest request,
+                       BodySink sink,
+                       ClientResponse target,
+                       ResponseCallback<? super ClientResponse> callback) {
+        client.execute(
+                SimpleRequestProducer.create(request),
+                new AbstractBinResponseConsumer<ClientResponse>() {
+
+                    private int status;
+
+                    @Override
+                    protected void start(HttpResponse response, ContentType contentType) {
+                        status = response.getCode();
+                    }
+
+                    @Override
+                    protected ClientResponse buildResult() {
+                        return target.set(status, null);
+                    }
+
+                    @Override
+                    protected int capacityIncrement() {
+                        return Integer.MAX_VALUE;
+                    }
+
+                    @Override
+                    protected void data(ByteBuffer src, boolean endOfStream) {
+                        sink.onContent(src);
+                    }
+
+                    @Override
+                    public void releaseResources() {
+                    }
+                },
+                futureCallback(callback)
+        );
+    }
+
+    private static <T> FutureCallback<T> futureCallback(final ResponseCallback<? super T> callback) {
+        return new FutureCallback<>() {
+
+            @Override
+            public void completed(T response) {
+                callback.completed(response);
+            }
+
+            @Override
+            public void failed(Exception e) {
+                callback.failed(e);
+            }
+
+            @Override
+            public void cancelled() {
+                callback.failed(new CancellationException("Request cancelled"));
+            }
+        };
+    }
+
     @Override
     public void shutdown() throws Exception {
         client.close();
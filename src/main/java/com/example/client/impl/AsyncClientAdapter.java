@@ -1,10 +1,21 @@
 package com.example.client.impl;
 
+import java.time.Duration;
+
+import com.example.client.BodySink;
 import com.example.client.ClientAdapter;
 import com.example.client.ClientConfiguration;
+import com.example.client.PreparedRequest;
+import com.example.client.ResponseCallback;
 import com.example.client.model.ClientRequest;
 import com.example.client.model.ClientResponse;
+import com.example.client.model.Header;
+import io.netty.handler.codec.http.HttpHeaders;
+import org.asynchttpclient.AsyncCompletionHandler;
+import org.asynchttpclient.AsyncHandler;
 import org.asynchttpclient.AsyncHttpClient;
+import org.asynchttpclient.HttpResponseBodyPart;
+import org.asynchttpclient.HttpResponseStatus;
 import org.asynchttpclient.ListenableFuture;
 import org.asynchttpclient.Request;
 import org.asynchttpclient.RequestBuilder;
@@ -18,25 +29,68 @@ public class AsyncClientAdapter implements ClientAdapter<Request, Response> {
     private final AsyncHttpClient client;
 
     public AsyncClientAdapter(final ClientConfiguration configuration) {
-        client = asyncHttpClient(
-                config()
-                        .setIoThreadsCount(configuration.ioThreads())
-                        .setMaxConnections(Integer.MAX_VALUE)
-                        .setMaxConnectionsPerHost(Integer.MAX_VALUE)
-        );
+        final var config = config()
+                .setIoThreadsCount(configuration.ioThreads())
+                .setMaxConnections(configuration.maxConnections())
+                .setMaxConnectionsPerHost(configuration.maxConnectionsPerRoute())
+                .setTcpNoDelay(configuration.tcpNoDelay());
+        if (configuration.maxConnections() != ClientConfiguration.UNLIMITED
+                || configuration.maxConnectionsPerRoute() != ClientConfiguration.UNLIMITED) {
+            // wait for free connection as other clients do, instead of failing request
+            config.setAcquireFreeChannelTimeout(Integer.MAX_VALUE);
+        }
+        if (configuration.keepAliveTtl() != null) {
+            config.setConnectionTtl(millis(configuration.keepAliveTtl()));
+        }
+        if (configuration.connectTimeout() != null) {
+            config.setConnectTimeout(millis(configuration.connectTimeout()));
+        }
+        if (configuration.responseTimeout() != null) {
+            config.setRequestTimeout(millis(configuration.responseTimeout()));
+        }
+        if (configuration.sendBufferSize() > 0) {
+            config.setSoSndBuf(configuration.sendBufferSize());
+        }
+        if (configuration.receiveBufferSize() > 0) {
+            config.setSoRcvBuf(configuration.receiveBufferSize());
+        }
+        if (configuration.responseBufferSize() > 0) {
+            config.setHttpClientCodecMaxChunkSize(configuration.responseBufferSize());
+        }
+        client = asyncHttpClient(config);
+    }
+
+    private static int millis(final Duration duration) {
+        return (int) Math.min(duration.toMillis(), Integer.MAX_VALUE);
     }
 
     @Override
     public Request mapRequest(ClientRequest clientRequest) {
-        final var builder = new RequestBuilder(clientRequest.getMethod())
+        final var builder = new RequestBuilder(clientRequest.getMethod().name())
                 .setUrl(clientRequest.getUrl());
-        clientRequest.getBody().ifPresent(builder::setBody);
+        for (final Header header : clientRequest.getHeaders()) {
+            builder.addHeader(header.getName(), header.getValue());
+        }
+        if (clientRequest.isWholeBody()) {
+            builder.setBody(clientRequest.getBody());
+        } else if (clientRequest.hasBody()) {
+            builder.setBody(clientRequest.getBodyBuffer());
+        }
         return builder.build();
     }
 
+    /**
+     * Built {@link Request} is immutable and may be executed repeatedly
+     */
+    @Override
+    public PreparedRequest<Request> prepare(ClientRequest clientRequest) {
+        final Request request = mapRequest(clientRequest);
+        return () -> request;
+    }
+
     @Override
-    public ClientResponse mapResponse(Response response) {
-        return new ClientResponse(response.getStatusCode(), response.getResponseBodyAsBytes());
+    public ClientResponse mapResponse(Response response, ClientResponse target) {
+        return target.set(response.getStatusCode(), response.getResponseBodyAsBytes());
     }
 
     @Override
@@ -44,6 +98,66 @@ public class AsyncClientAdapter implements ClientAdapter<Request, Response> {
         return client.executeRequest(request);
     }
 
+    @Override
+    public void send(Request request, ResponseCallback<? super Response> callback) {
+        client.executeRequest(request, new AsyncCompletionHandler<Response>() {
+
+            @Override
+            public Response onCompleted(Response response) {
+                callback.completed(response);
+                return response;
+            }
+
+            @Override
+            public void onThrowable(Throwable t) {
+                callback.failed(t);
+            }
+        });
+    }
+
+    /**
+     * Body parts are eager (copied out of netty buffers) as lazy ones can't be enabled per request
+     * and would break {@link #send(Request)}, still there is no aggregated body and {@link Response}.
+     */
+    @Override
+    public void stream(Request request,
+                       BodySink sink,
+                       ClientResponse target,
+                       ResponseCallback<? super ClientResponse> callback) {
+        client.executeRequest(request, new AsyncHandler<Void>() {
+
+            private int status;
+
+            @Override
+            public State onStatusReceived(HttpResponseStatus responseStatus) {
+                status = responseStatus.getStatusCode();
+                return State.CONTINUE;
+            }
+
+            @Override
+            public State onHeadersReceived(HttpHeaders headers) {
+                return State.CONTINUE;
+            }
+
+            @Override
+            public State onBodyPartReceived(HttpResponseBodyPart bodyPart) {
+                sink.onContent(bodyPart.getBodyByteBuffer());
+                return State.CONTINUE;
+            }
+
+            @Override
+            public void onThrowable(Throwable t) {
+                callback.failed(t);
+            }
+
+            @Override
+            public Void onCompleted() {
+                callback.completed(target.set(status, null));
+                return null;
+            }
+        });
+    }
+
     @Override
     public void shutdown() throws Exception {
         client.close();
@@ -1,55 +1,158 @@
 package com.example.client.impl;
 
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.function.IntFunction;
 
+import com.example.client.BodySink;
 import com.example.client.ClientAdapter;
 import com.example.client.ClientConfiguration;
+import com.example.client.PreparedRequest;
+import com.example.client.ResponseCallback;
 import com.example.client.model.ClientRequest;
 import com.example.client.model.ClientResponse;
-import org.apache.hc.client5.http.classic.methods.HttpGet;
-import org.apache.hc.client5.http.classic.methods.HttpPost;
+import org.apache.hc.client5.http.classic.methods.HttpUriRequestBase;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.ManagedHttpClientConnectionFactory;
 import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
 import org.apache.hc.core5.http.ClassicHttpRequest;
 import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.config.CharCodingConfig;
+import org.apache.hc.core5.http.config.Http1Config;
+import org.apache.hc.core5.http.io.SocketConfig;
 import org.apache.hc.core5.http.io.entity.ByteArrayEntity;
+import org.apache.hc.core5.http.message.BasicHeader;
 import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 
 public class BaselineClientAdapter implements ClientAdapter<ClassicHttpRequest, ClientResponse> {
 
+    private static final int STREAM_CHUNK_SIZE = 8192;
+    /**
+     * Idle read buffers kept for reuse, buffers of larger burst of streams are left to GC
+     */
+    private static final int MAX_POOLED_BUFFERS = 64;
+
     private final CloseableHttpClient client;
     private final ExecutorService executor;
+    /**
+     * Stream chunk buffers shared by all executor threads, thread local ones would be allocated per request
+     * when every request runs on its own virtual thread
+     */
+    private final BlockingQueue<ByteBuffer> readBuffers;
 
     public BaselineClientAdapter(final ClientConfiguration configuration) {
-        this.executor = Executors.newFixedThreadPool(configuration.ioThreads());
+        this(configuration, Executors.newFixedThreadPool(configuration.ioThreads()));
+    }
+
+    /**
+     * @param executorFactory creates executor of blocking {@code execute} calls for {@code ioThreads} threads
+     */
+    public BaselineClientAdapter(final ClientConfiguration configuration,
+                                 final IntFunction<? extends ExecutorService> executorFactory) {
+        this(configuration, executorFactory.apply(configuration.ioThreads()));
+    }
+
+    /**
+     * @param executor runs blocking {@code execute} calls, one task per request, shut down together with client
+     */
+    public BaselineClientAdapter(final ClientConfiguration configuration, final ExecutorService executor) {
+        this.executor = executor;
+        this.readBuffers = new ArrayBlockingQueue<>(
+                Math.max(1, Math.min(configuration.ioThreads(), MAX_POOLED_BUFFERS))
+        );
+        final var connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(configuration.maxConnections())
+                .setMaxConnPerRoute(configuration.maxConnectionsPerRoute())
+                .setPoolConcurrencyPolicy(PoolConcurrencyPolicy.LAX)
+                .setDefaultConnectionConfig(connectionConfig(configuration))
+                .setDefaultSocketConfig(socketConfig(configuration));
+        if (configuration.responseBufferSize() > 0) {
+            connectionManager.setConnectionFactory(new ManagedHttpClientConnectionFactory(
+                    Http1Config.custom().setBufferSize(configuration.responseBufferSize()).build(),
+                    CharCodingConfig.DEFAULT,
+                    null,
+                    null
+            ));
+        }
+        final var requestConfig = RequestConfig.custom();
+        if (configuration.responseTimeout() != null) {
+            requestConfig.setResponseTimeout(Timeout.of(configuration.responseTimeout()));
+        }
         this.client = HttpClients.custom()
-                .setConnectionManager(
-                        PoolingHttpClientConnectionManagerBuilder.create()
-                                .setMaxConnTotal(Integer.MAX_VALUE)
-                                .setMaxConnPerRoute(Integer.MAX_VALUE)
-                                .setPoolConcurrencyPolicy(PoolConcurrencyPolicy.LAX)
-                                .build()
-                )
+                .setConnectionManager(connectionManager.build())
+                .setDefaultRequestConfig(requestConfig.build())
                 .build();
     }
 
+    private static ConnectionConfig connectionConfig(final ClientConfiguration configuration) {
+        final var connectionConfig = ConnectionConfig.custom();
+        if (configuration.connectTimeout() != null) {
+            connectionConfig.setConnectTimeout(Timeout.of(configuration.connectTimeout()));
+        }
+        if (configuration.keepAliveTtl() != null) {
+            connectionConfig.setTimeToLive(TimeValue.of(configuration.keepAliveTtl()));
+        }
+        return connectionConfig.build();
+    }
+
+    private static SocketConfig socketConfig(final ClientConfiguration configuration) {
+        final var socketConfig = SocketConfig.custom()
+                .setTcpNoDelay(configuration.tcpNoDelay());
+        if (configuration.sendBufferSize() > 0) {
+            socketConfig.setSndBufSize(configuration.sendBufferSize());
+        }
+        if (configuration.receiveBufferSize() > 0) {
+            socketConfig.setRcvBufSize(configuration.receiveBufferSize());
+        }
+        return socketConfig.build();
+    }
+
     @Override
     public ClassicHttpRequest mapRequest(final ClientRequest clientRequest) {
-        final ClassicHttpRequest request = switch (clientRequest.getMethod()) {
-            case "GET" -> new HttpGet(clientRequest.getUrl());
-            case "POST" -> new HttpPost(clientRequest.getUrl());
-            default -> throw new IllegalArgumentException("Unsupported request method " + clientRequest.getMethod());
-        };
-
-        clientRequest.getBody().ifPresent((body) ->
-                request.setEntity(new ByteArrayEntity(body, ContentType.APPLICATION_OCTET_STREAM))
-        );
+        return prepare(clientRequest).request();
+    }
 
-        return request;
+    /**
+     * Classic requests are mutable, so only parsed uri, headers and repeatable body entity are shared between sends
+     */
+    @Override
+    public PreparedRequest<ClassicHttpRequest> prepare(final ClientRequest clientRequest) {
+        final String method = clientRequest.getMethod().name();
+        final URI uri = URI.create(clientRequest.getUrl());
+        final Header[] headers = clientRequest.getHeaders().stream()
+                .map((header) -> new BasicHeader(header.getName(), header.getValue()))
+                .toArray(Header[]::new);
+        final HttpEntity entity = clientRequest.hasBody()
+                ? new ByteArrayEntity(
+                        clientRequest.getBody(),
+                        clientRequest.getBodyOffset(),
+                        clientRequest.getBodyLength(),
+                        ContentType.APPLICATION_OCTET_STREAM
+                )
+                : null;
+        return () -> {
+            final ClassicHttpRequest request = new HttpUriRequestBase(method, uri);
+            for (final Header header : headers) {
+                request.addHeader(header);
+            }
+            request.setEntity(entity);
+            return request;
+        };
     }
 
     @Override
@@ -57,11 +160,86 @@ public class BaselineClientAdapter implements ClientAdapter<ClassicHttpRequest,
         return response;
     }
 
+    @Override
+    public ClientResponse mapResponse(final ClientResponse response, final ClientResponse target) {
+        return target.set(
+                response.getStatus(),
+                response.getContent(),
+                response.getContentOffset(),
+                response.getContentLength()
+        );
+    }
+
     @Override
     public Future<ClientResponse> send(final ClassicHttpRequest request) {
-        return executor.submit(() -> client.execute(request, (response) ->
+        return executor.submit(() -> execute(request));
+    }
+
+    @Override
+    public void send(final ClassicHttpRequest request, final ResponseCallback<? super ClientResponse> callback) {
+        executor.execute(() -> {
+            final ClientResponse response;
+            try {
+                response = execute(request);
+            } catch (Exception e) {
+                callback.failed(e);
+                return;
+            }
+            callback.completed(response);
+        });
+    }
+
+    @Override
+    public void stream(final ClassicHttpRequest request,
+                       final BodySink sink,
+                       final ClientResponse target,
+                       final ResponseCallback<? super ClientResponse> callback) {
+        executor.execute(() -> {
+            final ClientResponse response;
+            try {
+                response = client.execute(request, (classicResponse) -> {
+                    final var entity = classicResponse.getEntity();
+                    if (entity != null) {
+                        try (var content = entity.getContent()) {
+                            copy(content, sink);
+                        }
+                    }
+                    return target.set(classicResponse.getCode(), null);
+                });
+            } catch (Exception e) {
+                callback.failed(e);
+                return;
+            }
+            callback.completed(response);
+        });
+    }
+
+    /**
+     * Reads stream through pooled buffer, which is sink chunk as well
+     */
+    private void copy(final InputStream content, final BodySink sink) throws IOException {
+        ByteBuffer chunk = readBuffers.poll();
+        if (chunk == null) {
+            chunk = ByteBuffer.allocate(STREAM_CHUNK_SIZE);
+        }
+        try {
+            final byte[] buffer = chunk.array();
+            int read;
+            while ((read = content.read(buffer)) >= 0) {
+                if (read > 0) {
+                    chunk.clear().limit(read);
+                    sink.onContent(chunk);
+                }
+            }
+        } finally {
+            readBuffers.offer(chunk);
+        }
+    }
+
+    private ClientResponse execute(final ClassicHttpRequest request) throws Exception {
+        return client.execute(request, (response) ->
                 new ClientResponse(response.getCode(), response.getEntity().getContent().readAllBytes())
-        ));
+        );
     }
 
     @Override
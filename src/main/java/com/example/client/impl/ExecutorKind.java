@@ -0,0 +1,58 @@
+package com.example.client.impl;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Executors completing client responses
+ */
+public enum ExecutorKind {
+
+    /**
+     * {@code ioThreads} platform threads sharing single {@code LinkedBlockingQueue}
+     */
+    FIXED() {
+
+        @Override
+        public Executor create(final int threads) {
+            return Executors.newFixedThreadPool(threads);
+        }
+    },
+
+    /**
+     * New virtual thread per task, requires JDK 21+
+     */
+    VIRTUAL() {
+
+        @Override
+        public Executor create(final int threads) {
+            return VirtualThreads.newVirtualThreadPerTaskExecutor();
+        }
+    },
+
+    /**
+     * {@code ioThreads} workers with FIFO local queues and work stealing
+     */
+    FORK_JOIN() {
+
+        @Override
+        public Executor create(final int threads) {
+            return new ForkJoinPool(threads, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+        }
+    },
+
+    /**
+     * Task runs on submitting thread, no hand-off at all
+     */
+    DIRECT() {
+
+        @Override
+        public Executor create(final int threads) {
+            return Runnable::run;
+        }
+    },
+    ;
+
+    public abstract Executor create(final int threads);
+}
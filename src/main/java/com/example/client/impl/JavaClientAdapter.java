@@ -4,29 +4,43 @@ import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
 import java.util.concurrent.Future;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
 
+import com.example.client.BodySink;
 import com.example.client.ClientAdapter;
 import com.example.client.ClientConfiguration;
+import com.example.client.PreparedRequest;
+import com.example.client.ResponseCallback;
 import com.example.client.model.ClientRequest;
 import com.example.client.model.ClientResponse;
+import com.example.client.model.Header;
 
 public class JavaClientAdapter implements ClientAdapter<HttpRequest, HttpResponse<byte[]>> {
 
-    private final ExecutorService executor;
+    private final Executor executor;
     private final HttpClient client;
+    private final Duration responseTimeout;
 
     public JavaClientAdapter(final ClientConfiguration configuration) {
-        this(Executors.newFixedThreadPool(configuration.ioThreads()));
+        this(configuration, ExecutorKind.FIXED);
+    }
+
+    public JavaClientAdapter(final ClientConfiguration configuration, final ExecutorKind executorKind) {
+        this(configuration, executorKind.create(configuration.ioThreads()));
     }
 
     public JavaClientAdapter(final ClientConfiguration configuration, final BlockingQueue<Runnable> queue) {
-        this(new ThreadPoolExecutor(
+        this(configuration, new ThreadPoolExecutor(
                 configuration.ioThreads(),
                 configuration.ioThreads(),
                 0L,
@@ -35,28 +49,66 @@ public class JavaClientAdapter implements ClientAdapter<HttpRequest, HttpRespons
         ));
     }
 
-    public JavaClientAdapter(final ExecutorService executor) {
+    /**
+     * @param executorFactory creates response handling executor for {@code ioThreads} threads
+     */
+    public JavaClientAdapter(final ClientConfiguration configuration,
+                             final IntFunction<? extends Executor> executorFactory) {
+        this(configuration, executorFactory.apply(configuration.ioThreads()));
+    }
+
+    /**
+     * Only connect and response timeouts are configurable per client,
+     * pool size, keep-alive and buffers are global {@code jdk.httpclient.*} system properties,
+     * TCP_NODELAY is always on.
+     *
+     * @param executor used by client for response handling, shut down together with client if it is {@link ExecutorService}
+     */
+    private JavaClientAdapter(final ClientConfiguration configuration, final Executor executor) {
         this.executor = executor;
-        this.client = HttpClient.newBuilder()
-                .executor(executor)
-                .build();
+        this.responseTimeout = configuration.responseTimeout();
+        final var builder = HttpClient.newBuilder()
+                .executor(executor);
+        if (configuration.connectTimeout() != null) {
+            builder.connectTimeout(configuration.connectTimeout());
+        }
+        this.client = builder.build();
     }
 
     @Override
     public HttpRequest mapRequest(ClientRequest clientRequest) {
-        final HttpRequest.BodyPublisher publisher = clientRequest.getBody()
-                .map(HttpRequest.BodyPublishers::ofByteArray)
-                .orElseGet(HttpRequest.BodyPublishers::noBody);
+        final HttpRequest.BodyPublisher publisher = clientRequest.hasBody()
+                ? HttpRequest.BodyPublishers.ofByteArray(
+                        clientRequest.getBody(),
+                        clientRequest.getBodyOffset(),
+                        clientRequest.getBodyLength()
+                )
+                : HttpRequest.BodyPublishers.noBody();
 
-        return HttpRequest.newBuilder()
+        final var builder = HttpRequest.newBuilder()
                 .uri(URI.create(clientRequest.getUrl()))
-                .method(clientRequest.getMethod(), publisher)
-                .build();
+                .method(clientRequest.getMethod().name(), publisher);
+        for (final Header header : clientRequest.getHeaders()) {
+            builder.header(header.getName(), header.getValue());
+        }
+        if (responseTimeout != null) {
+            builder.timeout(responseTimeout);
+        }
+        return builder.build();
     }
 
+    /**
+     * {@link HttpRequest} is immutable, byte array publisher is subscribed anew on every send
+     */
     @Override
-    public ClientResponse mapResponse(HttpResponse<byte[]> response) {
-        return new ClientResponse(response.statusCode(), response.body());
+    public PreparedRequest<HttpRequest> prepare(ClientRequest clientRequest) {
+        final HttpRequest request = mapRequest(clientRequest);
+        return () -> request;
+    }
+
+    @Override
+    public ClientResponse mapResponse(HttpResponse<byte[]> response, ClientResponse target) {
+        return target.set(response.statusCode(), response.body());
     }
 
     @Override
@@ -64,8 +116,70 @@ public class JavaClientAdapter implements ClientAdapter<HttpRequest, HttpRespons
         return client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
     }
 
+    @Override
+    public void send(HttpRequest request, ResponseCallback<? super HttpResponse<byte[]>> callback) {
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        callback.failed(error);
+                    } else {
+                        callback.completed(response);
+                    }
+                });
+    }
+
+    @Override
+    public void stream(HttpRequest request,
+                       BodySink sink,
+                       ClientResponse target,
+                       ResponseCallback<? super ClientResponse> callback) {
+        final HttpResponse.BodyHandler<Void> handler = sink == BodySink.DISCARD
+                ? HttpResponse.BodyHandlers.discarding()
+                : (responseInfo) -> HttpResponse.BodySubscribers.fromSubscriber(new SinkSubscriber(sink));
+        client.sendAsync(request, handler)
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        callback.failed(error);
+                    } else {
+                        callback.completed(target.set(response.statusCode(), null));
+                    }
+                });
+    }
+
     @Override
     public void shutdown() {
-        executor.shutdownNow();
+        if (executor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    private static final class SinkSubscriber implements Flow.Subscriber<List<ByteBuffer>> {
+
+        private final BodySink sink;
+
+        private SinkSubscriber(final BodySink sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> items) {
+            for (final ByteBuffer item : items) {
+                sink.onContent(item);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            // reported through response future
+        }
+
+        @Override
+        public void onComplete() {
+        }
     }
 }
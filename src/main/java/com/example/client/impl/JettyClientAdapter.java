@@ -1,31 +1,87 @@
 package com.example.client.impl;
 
+import java.net.URI;
+import java.nio.ByteBuffer;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
+import com.example.client.BodySink;
 import com.example.client.ClientAdapter;
 import com.example.client.ClientConfiguration;
+import com.example.client.ConnectionPoolType;
+import com.example.client.PreparedRequest;
+import com.example.client.ResponseCallback;
 import com.example.client.model.ClientRequest;
 import com.example.client.model.ClientResponse;
-import org.eclipse.jetty.client.BytesRequestContent;
+import org.eclipse.jetty.client.AbstractConnectionPool;
+import org.eclipse.jetty.client.ByteBufferRequestContent;
 import org.eclipse.jetty.client.CompletableResponseListener;
 import org.eclipse.jetty.client.ContentResponse;
+import org.eclipse.jetty.client.Destination;
+import org.eclipse.jetty.client.DuplexConnectionPool;
 import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.jetty.client.MultiplexConnectionPool;
+import org.eclipse.jetty.client.RandomConnectionPool;
 import org.eclipse.jetty.client.Request;
+import org.eclipse.jetty.client.Response;
+import org.eclipse.jetty.client.Result;
+import org.eclipse.jetty.client.RoundRobinConnectionPool;
 import org.eclipse.jetty.client.transport.HttpClientTransportOverHTTP;
+import org.eclipse.jetty.http.HttpField;
+import org.eclipse.jetty.http.HttpFields;
+import org.eclipse.jetty.http.HttpMethod;
+import org.eclipse.jetty.io.ClientConnector;
 import org.eclipse.jetty.util.thread.QueuedThreadPool;
 
+/**
+ * Jetty has no connection limit over all destinations, so {@code maxConnections} is ignored.
+ */
 public class JettyClientAdapter implements ClientAdapter<Request, ContentResponse> {
 
     private final HttpClient client;
+    private final long responseTimeoutMillis;
 
     public JettyClientAdapter(final ClientConfiguration configuration) {
+        if (configuration.connectionPoolType() == ConnectionPoolType.ROUND_ROBIN
+                && configuration.maxConnectionsPerRoute() == ClientConfiguration.UNLIMITED) {
+            throw new IllegalArgumentException(
+                    "Round robin pool opens new connection on every acquire up to maxConnectionsPerRoute, "
+                            + "it must be limited"
+            );
+        }
         final var executor = new QueuedThreadPool(configuration.ioThreads());
-        this.client = new HttpClient(
-                new HttpClientTransportOverHTTP(1)
-        );
-        client.setMaxRequestsQueuedPerDestination(4096);
+        final var connector = new ClientConnector();
+        connector.setSelectors(configuration.selectors());
+        connector.setTCPNoDelay(configuration.tcpNoDelay());
+        if (configuration.sendBufferSize() > 0) {
+            connector.setSendBufferSize(configuration.sendBufferSize());
+        }
+        if (configuration.receiveBufferSize() > 0) {
+            connector.setReceiveBufferSize(configuration.receiveBufferSize());
+        }
+        final var transport = new HttpClientTransportOverHTTP(connector);
+        this.client = new HttpClient(transport);
+        final long keepAliveTtlMillis = configuration.keepAliveTtl() == null
+                ? -1
+                : configuration.keepAliveTtl().toMillis();
+        transport.setConnectionPoolFactory(destination -> {
+            final var pool = newConnectionPool(configuration.connectionPoolType(), destination);
+            pool.setMaxDuration(keepAliveTtlMillis);
+            return pool;
+        });
+        client.setMaxRequestsQueuedPerDestination(configuration.maxRequestsQueuedPerDestination());
         client.setExecutor(executor);
-        client.setMaxConnectionsPerDestination(Integer.MAX_VALUE);
+        client.setMaxConnectionsPerDestination(configuration.maxConnectionsPerRoute());
+        if (configuration.connectTimeout() != null) {
+            client.setConnectTimeout(configuration.connectTimeout().toMillis());
+        }
+        if (configuration.responseBufferSize() > 0) {
+            client.setResponseBufferSize(configuration.responseBufferSize());
+        }
+        this.responseTimeoutMillis = configuration.responseTimeout() == null
+                ? 0
+                : configuration.responseTimeout().toMillis();
         try {
             client.start();
         } catch (Exception e) {
@@ -33,18 +89,58 @@ public class JettyClientAdapter implements ClientAdapter<Request, ContentRespons
         }
     }
 
+    private AbstractConnectionPool newConnectionPool(final ConnectionPoolType type, final Destination destination) {
+        return switch (type) {
+            case DUPLEX -> new DuplexConnectionPool(destination, client.getMaxConnectionsPerDestination());
+            case MULTIPLEX -> new MultiplexConnectionPool(destination, client.getMaxConnectionsPerDestination(), 1);
+            case ROUND_ROBIN -> new RoundRobinConnectionPool(destination, client.getMaxConnectionsPerDestination());
+            case RANDOM -> new RandomConnectionPool(destination, client.getMaxConnectionsPerDestination(), 1);
+        };
+    }
+
     @Override
     public Request mapRequest(ClientRequest clientRequest) {
-        final var request = client.newRequest(clientRequest.getUrl())
-                .method(clientRequest.getMethod());
-        clientRequest.getBody().ifPresent((body) ->
-                request.body(new BytesRequestContent(body)));
-        return request;
+        return prepare(clientRequest).request();
+    }
+
+    /**
+     * Jetty {@link Request} and its content are single-use,
+     * so only parsed uri, method, header fields and body array are shared between sends
+     */
+    @Override
+    public PreparedRequest<Request> prepare(ClientRequest clientRequest) {
+        final URI uri = URI.create(clientRequest.getUrl());
+        final HttpMethod method = HttpMethod.valueOf(clientRequest.getMethod().name());
+        final HttpField[] fields = clientRequest.getHeaders().stream()
+                .map((header) -> new HttpField(header.getName(), header.getValue()))
+                .toArray(HttpField[]::new);
+        final Consumer<HttpFields.Mutable> headers = (mutable) -> {
+            for (final HttpField field : fields) {
+                mutable.add(field);
+            }
+        };
+        final byte[] body = clientRequest.getBody();
+        final int bodyOffset = clientRequest.getBodyOffset();
+        final int bodyLength = clientRequest.getBodyLength();
+        return () -> {
+            final var request = client.newRequest(uri)
+                    .method(method);
+            if (fields.length > 0) {
+                request.headers(headers);
+            }
+            if (responseTimeoutMillis > 0) {
+                request.timeout(responseTimeoutMillis, TimeUnit.MILLISECONDS);
+            }
+            if (body != null) {
+                request.body(new ByteBufferRequestContent(ByteBuffer.wrap(body, bodyOffset, bodyLength)));
+            }
+            return request;
+        };
     }
 
     @Override
-    public ClientResponse mapResponse(ContentResponse response) {
-        return new ClientResponse(response.getStatus(), response.getContent());
+    public ClientResponse mapResponse(ContentResponse response, ClientResponse target) {
+        return target.set(response.getStatus(), response.getContent());
     }
 
     @Override
@@ -52,6 +148,51 @@ public class JettyClientAdapter implements ClientAdapter<Request, ContentRespons
         return new CompletableResponseListener(request).send();
     }
 
+    /**
+     * Buffered {@link ContentResponse} is built by public {@link CompletableResponseListener}
+     */
+    @Override
+    public void send(Request request, ResponseCallback<? super ContentResponse> callback) {
+        new CompletableResponseListener(request).send().whenComplete((response, error) -> {
+            if (error != null) {
+                callback.failed(error);
+            } else {
+                callback.completed(response);
+            }
+        });
+    }
+
+    @Override
+    public void stream(Request request,
+                       BodySink sink,
+                       ClientResponse target,
+                       ResponseCallback<? super ClientResponse> callback) {
+        final Response.CompleteListener completeListener = (result) -> {
+            if (result.isFailed()) {
+                callback.failed(result.getFailure());
+            } else {
+                callback.completed(target.set(result.getResponse().getStatus(), null));
+            }
+        };
+        if (sink == BodySink.DISCARD) {
+            // without content listeners Jetty releases content right away
+            request.send(completeListener);
+            return;
+        }
+        request.send(new Response.Listener() {
+
+            @Override
+            public void onContent(Response response, ByteBuffer content) {
+                sink.onContent(content);
+            }
+
+            @Override
+            public void onComplete(Result result) {
+                completeListener.onComplete(result);
+            }
+        });
+    }
+
     @Override
     public void shutdown() throws Exception {
         client.stop();
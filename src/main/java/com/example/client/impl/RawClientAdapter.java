@@ -0,0 +1,768 @@
+package com.example.client.impl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.example.client.BatchCompletion;
+import com.example.client.BatchPolicy;
+import com.example.client.BodySink;
+import com.example.client.ClientAdapter;
+import com.example.client.ClientConfiguration;
+import com.example.client.PreparedRequest;
+import com.example.client.ResponseCallback;
+import com.example.client.model.ClientRequest;
+import com.example.client.model.ClientResponse;
+import com.example.client.model.Header;
+import org.jctools.queues.MpmcUnboundedXaddArrayQueue;
+
+/**
+ * Bare HTTP/1.1 client on top of {@link SocketChannel}, lower bound for library overhead.
+ * <p>
+ * Requests are encoded into direct buffers by {@link #mapRequest(ClientRequest)} on every call,
+ * {@link #prepare(ClientRequest)} encodes request once for repeated sends,
+ * caller thread takes keep-alive connection from the pool (or opens a new one)
+ * and writes request directly into the socket, selector thread only reads responses.
+ * With {@code pipelineDepth > 1} connection stays in the pool until it has that many requests in flight,
+ * so next requests are written without waiting for previous responses (HTTP/1.1 pipelining),
+ * responses are matched to requests in send order.
+ * Response parser understands status line, {@code Content-Length} and {@code Connection: close} only,
+ * chunked responses are rejected.
+ * <p>
+ * Connections are not limited and never expire, timeouts except connect one are not supported,
+ * {@code responseBufferSize} is the size of per-connection read buffer.
+ * Streamed body is passed to sink directly from read buffer.
+ */
+public class RawClientAdapter implements ClientAdapter<RawClientAdapter.RawRequest, ClientResponse> {
+
+    private static final int DEFAULT_READ_BUFFER_SIZE = 16384;
+    private static final int POOL_CHUNK_SIZE = 1024;
+
+    private static final byte[] HTTP_PREFIX = "HTTP/".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CONTENT_LENGTH = "content-length:".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CONNECTION = "connection:".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TRANSFER_ENCODING = "transfer-encoding:".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CLOSE = "close".getBytes(StandardCharsets.US_ASCII);
+
+    private final IoLoop[] loops;
+    private final AtomicInteger nextLoop = new AtomicInteger();
+    private final ConcurrentHashMap<InetSocketAddress, Queue<Connection>> pools = new ConcurrentHashMap<>();
+    /**
+     * Open connections, closed ones remove themselves
+     */
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+    private final int pipelineDepth;
+    private final ClientConfiguration configuration;
+    private final int readBufferSize;
+
+    public RawClientAdapter(final ClientConfiguration configuration) {
+        this(configuration, 1);
+    }
+
+    /**
+     * @param pipelineDepth max requests in flight on single connection, 1 disables pipelining
+     */
+    public RawClientAdapter(final ClientConfiguration configuration, final int pipelineDepth) {
+        if (pipelineDepth <= 0) {
+            throw new IllegalArgumentException("Pipeline depth must be positive, but found " + pipelineDepth);
+        }
+        this.pipelineDepth = pipelineDepth;
+        this.configuration = configuration;
+        this.readBufferSize = configuration.responseBufferSize() > 0
+                ? configuration.responseBufferSize()
+                : DEFAULT_READ_BUFFER_SIZE;
+        loops = new IoLoop[configuration.ioThreads()];
+        for (int i = 0; i < loops.length; ++i) {
+            loops[i] = new IoLoop(i);
+            loops[i].start();
+        }
+    }
+
+    @Override
+    public RawRequest mapRequest(ClientRequest clientRequest) {
+        return encode(clientRequest);
+    }
+
+    @Override
+    public PreparedRequest<RawRequest> prepare(ClientRequest clientRequest) {
+        final var request = encode(clientRequest);
+        return () -> request;
+    }
+
+    private static RawRequest encode(final ClientRequest clientRequest) {
+        final URI uri = URI.create(clientRequest.getUrl());
+        final int port = uri.getPort() == -1 ? 80 : uri.getPort();
+        final String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+        final String target = uri.getRawQuery() == null ? path : path + "?" + uri.getRawQuery();
+
+        final var head = new StringBuilder()
+                .append(clientRequest.getMethod().name()).append(' ').append(target).append(" HTTP/1.1\r\n")
+                .append("Host: ").append(uri.getHost()).append(':').append(port).append("\r\n");
+        for (final Header header : clientRequest.getHeaders()) {
+            head.append(header.getName()).append(": ").append(header.getValue()).append("\r\n");
+        }
+        if (clientRequest.hasBody()) {
+            head.append("Content-Type: application/octet-stream\r\n")
+                    .append("Content-Length: ").append(clientRequest.getBodyLength()).append("\r\n");
+        }
+        head.append("\r\n");
+
+        final byte[] headBytes = head.toString().getBytes(StandardCharsets.US_ASCII);
+        final ByteBuffer encoded = ByteBuffer.allocateDirect(headBytes.length + clientRequest.getBodyLength());
+        encoded.put(headBytes);
+        if (clientRequest.hasBody()) {
+            encoded.put(clientRequest.getBody(), clientRequest.getBodyOffset(), clientRequest.getBodyLength());
+        }
+        encoded.flip();
+        return new RawRequest(new InetSocketAddress(uri.getHost(), port), encoded.asReadOnlyBuffer());
+    }
+
+    @Override
+    public ClientResponse mapResponse(ClientResponse response) {
+        return response;
+    }
+
+    @Override
+    public ClientResponse mapResponse(ClientResponse response, ClientResponse target) {
+        return target.set(
+                response.getStatus(),
+                response.getContent(),
+                response.getContentOffset(),
+                response.getContentLength()
+        );
+    }
+
+    @Override
+    public Future<ClientResponse> send(RawRequest request) {
+        final var future = new CompletableFuture<ClientResponse>();
+        send(request, new ResponseCallback<>() {
+
+            @Override
+            public void completed(ClientResponse response) {
+                future.complete(response);
+            }
+
+            @Override
+            public void failed(Throwable error) {
+                future.completeExceptionally(error);
+            }
+        });
+        return future;
+    }
+
+    @Override
+    public void send(RawRequest request, ResponseCallback<? super ClientResponse> callback) {
+        final Connection connection;
+        try {
+            connection = acquire(request.address);
+        } catch (IOException e) {
+            callback.failed(e);
+            return;
+        }
+        connection.start(request.encoded.duplicate(), callback);
+    }
+
+    /**
+     * Consecutive requests that got the same pipelined connection are written with single gathering write
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public BatchCompletion<ClientResponse> sendAll(List<RawRequest> requests, BatchPolicy policy) {
+        final var batch = new BatchCompletion<ClientResponse>(requests.size(), policy);
+        final var buffers = new ByteBuffer[requests.size()];
+        final var callbacks = (ResponseCallback<? super ClientResponse>[]) new ResponseCallback<?>[requests.size()];
+        Connection group = null;
+        int count = 0;
+        for (int i = 0; i < requests.size(); ++i) {
+            final var request = requests.get(i);
+            final Connection connection;
+            try {
+                connection = acquire(request.address);
+            } catch (IOException e) {
+                batch.callback(i).failed(e);
+                continue;
+            }
+            if (connection != group && count > 0) {
+                group.start(buffers, callbacks, count);
+                count = 0;
+            }
+            group = connection;
+            buffers[count] = request.encoded.duplicate();
+            callbacks[count] = batch.callback(i);
+            ++count;
+        }
+        if (count > 0) {
+            group.start(buffers, callbacks, count);
+        }
+        return batch;
+    }
+
+    @Override
+    public void stream(RawRequest request,
+                       BodySink sink,
+                       ClientResponse target,
+                       ResponseCallback<? super ClientResponse> callback) {
+        send(request, new SinkCallback(sink, target, callback));
+    }
+
+    @Override
+    public void shutdown() throws Exception {
+        for (final var loop : loops) {
+            loop.selector.close();
+        }
+        for (final var connection : connections) {
+            connection.close();
+        }
+    }
+
+    private Connection acquire(final InetSocketAddress address) throws IOException {
+        final var pool = pools.computeIfAbsent(address, (__) -> new MpmcUnboundedXaddArrayQueue<>(POOL_CHUNK_SIZE));
+        Connection connection;
+        while ((connection = pool.poll()) != null) {
+            if (connection.channel.isOpen()) {
+                connection.reserve();
+                return connection;
+            }
+        }
+        final SocketChannel channel = open(address);
+        connection = new Connection(
+                channel,
+                pool,
+                connections,
+                loops[Math.floorMod(nextLoop.getAndIncrement(), loops.length)],
+                pipelineDepth,
+                readBufferSize
+        );
+        connections.add(connection);
+        connection.loop.register(connection);
+        connection.reserve();
+        return connection;
+    }
+
+    private SocketChannel open(final InetSocketAddress address) throws IOException {
+        final SocketChannel channel = SocketChannel.open();
+        try {
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, configuration.tcpNoDelay());
+            if (configuration.sendBufferSize() > 0) {
+                channel.setOption(StandardSocketOptions.SO_SNDBUF, configuration.sendBufferSize());
+            }
+            if (configuration.receiveBufferSize() > 0) {
+                // before connect, so that window scale is negotiated for it
+                channel.setOption(StandardSocketOptions.SO_RCVBUF, configuration.receiveBufferSize());
+            }
+            if (configuration.connectTimeout() != null) {
+                final long timeoutMillis = configuration.connectTimeout().toMillis();
+                channel.socket().connect(address, (int) Math.min(timeoutMillis, Integer.MAX_VALUE));
+            } else {
+                channel.connect(address);
+            }
+            channel.configureBlocking(false);
+            return channel;
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Immutable encoded request, may be sent any number of times
+     */
+    public static final class RawRequest {
+
+        private final InetSocketAddress address;
+        private final ByteBuffer encoded;
+
+        private RawRequest(final InetSocketAddress address, final ByteBuffer encoded) {
+            this.address = address;
+            this.encoded = encoded;
+        }
+    }
+
+    private static final class IoLoop extends Thread {
+
+        private final Selector selector;
+        private final Queue<Connection> registrations = new ConcurrentLinkedQueue<>();
+        private final Queue<Connection> writes = new ConcurrentLinkedQueue<>();
+        /**
+         * Writes of connections not registered yet, used by io thread only
+         */
+        private final ArrayDeque<Connection> unregisteredWrites = new ArrayDeque<>();
+
+        private IoLoop(final int index) {
+            super("raw-client-io-" + index);
+            setDaemon(true);
+            try {
+                selector = Selector.open();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void register(final Connection connection) {
+            registrations.add(connection);
+            selector.wakeup();
+        }
+
+        private void continueWrite(final Connection connection) {
+            writes.add(connection);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (selector.isOpen()) {
+                    selector.select(this::process);
+                    Connection connection;
+                    while ((connection = registrations.poll()) != null) {
+                        try {
+                            connection.key = connection.channel.register(selector, SelectionKey.OP_READ, connection);
+                        } catch (ClosedChannelException e) {
+                            connection.fail(e);
+                        }
+                    }
+                    while ((connection = writes.poll()) != null) {
+                        if (connection.key != null && connection.key.isValid()) {
+                            connection.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                        } else if (connection.key == null && connection.channel.isOpen()) {
+                            // registration is queued after this pass, retry on the next one
+                            unregisteredWrites.add(connection);
+                        }
+                        // closed or failed connection has nothing to write anymore
+                    }
+                    writes.addAll(unregisteredWrites);
+                    unregisteredWrites.clear();
+                }
+            } catch (ClosedSelectorException e) {
+                // client shut down
+            } catch (IOException e) {
+                System.err.println("Raw client io loop failed: " + e.getMessage());
+            }
+        }
+
+        private void process(final SelectionKey key) {
+            final var connection = (Connection) key.attachment();
+            try {
+                if (key.isWritable()) {
+                    connection.onWritable();
+                }
+                if (key.isValid() && key.isReadable()) {
+                    connection.onReadable();
+                }
+            } catch (IOException | RuntimeException e) {
+                connection.fail(e);
+            }
+        }
+    }
+
+    /**
+     * Marks exchange which body goes to sink instead of response array
+     */
+    private static final class SinkCallback implements ResponseCallback<ClientResponse> {
+
+        private final BodySink sink;
+        private final ClientResponse target;
+        private final ResponseCallback<? super ClientResponse> callback;
+
+        private SinkCallback(final BodySink sink,
+                             final ClientResponse target,
+                             final ResponseCallback<? super ClientResponse> callback) {
+            this.sink = sink;
+            this.target = target;
+            this.callback = callback;
+        }
+
+        @Override
+        public void completed(ClientResponse response) {
+            callback.completed(response);
+        }
+
+        @Override
+        public void failed(Throwable error) {
+            callback.failed(error);
+        }
+    }
+
+    private static final class Connection {
+
+        private final SocketChannel channel;
+        private final Queue<Connection> pool;
+        private final Set<Connection> connections;
+        private final IoLoop loop;
+        private final int pipelineDepth;
+        private final ByteBuffer readBuffer;
+        private SelectionKey key;
+
+        /**
+         * Exchanges reserved on this connection, connection stays in the pool while it is below pipeline depth
+         */
+        private final AtomicInteger inFlight = new AtomicInteger();
+        /**
+         * Callbacks of written requests in send order, guarded by connection monitor
+         */
+        private final ArrayDeque<ResponseCallback<? super ClientResponse>> callbacks = new ArrayDeque<>();
+        /**
+         * Requests not yet fully written to socket, guarded by connection monitor
+         */
+        private final ArrayDeque<ByteBuffer> pendingWrites = new ArrayDeque<>();
+
+        private boolean readingBody;
+        private int status;
+        private boolean keepAlive;
+        private byte[] body;
+        private BodySink sink;
+        private int bodyRemaining;
+
+        private Connection(final SocketChannel channel,
+                           final Queue<Connection> pool,
+                           final Set<Connection> connections,
+                           final IoLoop loop,
+                           final int pipelineDepth,
+                           final int readBufferSize) {
+            this.channel = channel;
+            this.pool = pool;
+            this.connections = connections;
+            this.loop = loop;
+            this.pipelineDepth = pipelineDepth;
+            this.readBuffer = ByteBuffer.allocateDirect(readBufferSize);
+        }
+
+        /**
+         * Called by caller thread on connection taken from the pool (or a new one),
+         * returns it back if there is still room for another exchange
+         */
+        private void reserve() {
+            if (inFlight.incrementAndGet() < pipelineDepth) {
+                pool.offer(this);
+            }
+        }
+
+        /**
+         * Called by io thread on completed exchange,
+         * returns connection to the pool if it was taken out because of full pipeline
+         */
+        private void release() {
+            if (inFlight.getAndDecrement() == pipelineDepth) {
+                pool.offer(this);
+            }
+        }
+
+        /**
+         * Called by caller thread on reserved connection.
+         * Request is written right away unless previous ones are still waiting for the socket,
+         * callback order matches write order, so responses are matched in FIFO order.
+         */
+        private void start(final ByteBuffer request, final ResponseCallback<? super ClientResponse> callback) {
+            final boolean open;
+            IOException error = null;
+            synchronized (this) {
+                open = channel.isOpen();
+                if (open) {
+                    callbacks.add(callback);
+                    if (!pendingWrites.isEmpty()) {
+                        pendingWrites.add(request);
+                        return;
+                    }
+                    try {
+                        channel.write(request);
+                    } catch (IOException e) {
+                        error = e;
+                    }
+                    if (error == null) {
+                        if (request.hasRemaining()) {
+                            pendingWrites.add(request);
+                            loop.continueWrite(this);
+                        }
+                        return;
+                    }
+                }
+            }
+            // callbacks are completed outside of connection monitor
+            if (open) {
+                fail(error);
+            } else {
+                callback.failed(new ClosedChannelException());
+            }
+        }
+
+        /**
+         * Batch version of {@link #start(ByteBuffer, ResponseCallback)},
+         * all requests reserved this connection and are written with single gathering write.
+         * Arrays are not retained, so caller may reuse them.
+         */
+        private void start(final ByteBuffer[] requests,
+                           final ResponseCallback<? super ClientResponse>[] requestCallbacks,
+                           final int count) {
+            final boolean open;
+            IOException error = null;
+            synchronized (this) {
+                open = channel.isOpen();
+                if (open) {
+                    for (int i = 0; i < count; ++i) {
+                        callbacks.add(requestCallbacks[i]);
+                    }
+                    if (!pendingWrites.isEmpty()) {
+                        for (int i = 0; i < count; ++i) {
+                            pendingWrites.add(requests[i]);
+                        }
+                        return;
+                    }
+                    try {
+                        channel.write(requests, 0, count);
+                    } catch (IOException e) {
+                        error = e;
+                    }
+                    if (error == null) {
+                        for (int i = 0; i < count; ++i) {
+                            if (requests[i].hasRemaining()) {
+                                pendingWrites.add(requests[i]);
+                            }
+                        }
+                        if (!pendingWrites.isEmpty()) {
+                            loop.continueWrite(this);
+                        }
+                        return;
+                    }
+                }
+            }
+            // callbacks are completed outside of connection monitor
+            if (open) {
+                fail(error);
+            } else {
+                for (int i = 0; i < count; ++i) {
+                    requestCallbacks[i].failed(new ClosedChannelException());
+                }
+            }
+        }
+
+        private synchronized void onWritable() throws IOException {
+            ByteBuffer buffer;
+            while ((buffer = pendingWrites.peek()) != null) {
+                channel.write(buffer);
+                if (buffer.hasRemaining()) {
+                    return;
+                }
+                pendingWrites.poll();
+            }
+            key.interestOps(SelectionKey.OP_READ);
+        }
+
+        private void onReadable() throws IOException {
+            final int read = channel.read(readBuffer);
+            if (read < 0) {
+                fail(new IOException("Connection closed by server"));
+                return;
+            }
+            readBuffer.flip();
+            try {
+                parse();
+            } finally {
+                readBuffer.compact();
+            }
+        }
+
+        private void parse() throws IOException {
+            while (readBuffer.hasRemaining()) {
+                if (!readingBody) {
+                    final int start = readBuffer.position();
+                    final int headersEnd = findHeadersEnd(readBuffer, start);
+                    if (headersEnd < 0) {
+                        if (start == 0 && readBuffer.limit() == readBuffer.capacity()) {
+                            throw new IOException("Response headers are too large");
+                        }
+                        return;
+                    }
+                    parseHeaders(start, headersEnd);
+                    readBuffer.position(headersEnd);
+                    readingBody = true;
+                }
+
+                final int chunk = Math.min(readBuffer.remaining(), bodyRemaining);
+                if (sink == null) {
+                    readBuffer.get(body, body.length - bodyRemaining, chunk);
+                } else if (chunk > 0) {
+                    final int position = readBuffer.position();
+                    final int limit = readBuffer.limit();
+                    readBuffer.limit(position + chunk);
+                    sink.onContent(readBuffer);
+                    readBuffer.limit(limit).position(position + chunk);
+                }
+                bodyRemaining -= chunk;
+                if (bodyRemaining > 0) {
+                    return;
+                }
+                readingBody = false;
+                complete();
+                if (!channel.isOpen()) {
+                    return;
+                }
+            }
+        }
+
+        private void parseHeaders(final int start, final int end) throws IOException {
+            if (!matchesIgnoreCase(readBuffer, start, end, HTTP_PREFIX) || end - start < 12) {
+                throw new IOException("Malformed status line");
+            }
+            status = (readBuffer.get(start + 9) - '0') * 100
+                    + (readBuffer.get(start + 10) - '0') * 10
+                    + (readBuffer.get(start + 11) - '0');
+            keepAlive = true;
+            int contentLength = -1;
+
+            int lineStart = start;
+            for (int i = start; i + 1 < end; ++i) {
+                if (readBuffer.get(i) != '\r' || readBuffer.get(i + 1) != '\n') {
+                    continue;
+                }
+                if (matchesIgnoreCase(readBuffer, lineStart, i, CONTENT_LENGTH)) {
+                    contentLength = parseInt(readBuffer, lineStart + CONTENT_LENGTH.length, i);
+                } else if (matchesIgnoreCase(readBuffer, lineStart, i, CONNECTION)) {
+                    keepAlive = !containsIgnoreCase(readBuffer, lineStart + CONNECTION.length, i, CLOSE);
+                } else if (matchesIgnoreCase(readBuffer, lineStart, i, TRANSFER_ENCODING)) {
+                    throw new IOException("Transfer-Encoding is not supported");
+                }
+                lineStart = i + 2;
+            }
+            if (contentLength < 0) {
+                throw new IOException("Response without Content-Length is not supported");
+            }
+            final ResponseCallback<?> callback;
+            synchronized (this) {
+                callback = callbacks.peek();
+            }
+            if (callback instanceof SinkCallback sinkCallback) {
+                sink = sinkCallback.sink;
+                body = null;
+            } else {
+                sink = null;
+                body = new byte[contentLength];
+            }
+            bodyRemaining = contentLength;
+        }
+
+        private void complete() throws IOException {
+            final ResponseCallback<? super ClientResponse> completedCallback;
+            synchronized (this) {
+                completedCallback = callbacks.poll();
+            }
+            if (completedCallback == null) {
+                throw new IOException("Unexpected response without request");
+            }
+            final ClientResponse response = completedCallback instanceof SinkCallback sinkCallback
+                    ? sinkCallback.target.set(status, null)
+                    : new ClientResponse(status, body);
+            body = null;
+            sink = null;
+
+            if (keepAlive) {
+                release();
+            } else {
+                // requests pipelined after this one are never going to be answered
+                fail(new IOException("Connection closed by server"));
+            }
+            completedCallback.completed(response);
+        }
+
+        private void fail(final Throwable error) {
+            close();
+            final ResponseCallback<?>[] failedCallbacks;
+            synchronized (this) {
+                failedCallbacks = callbacks.toArray(new ResponseCallback<?>[0]);
+                callbacks.clear();
+                pendingWrites.clear();
+            }
+            for (final var failedCallback : failedCallbacks) {
+                failedCallback.failed(error);
+            }
+        }
+
+        private void close() {
+            connections.remove(this);
+            if (key != null) {
+                key.cancel();
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+
+    /**
+     * @return position right after {@code \r\n\r\n}, or -1 if headers are incomplete
+     */
+    private static int findHeadersEnd(final ByteBuffer buffer, final int start) {
+        final int limit = buffer.limit();
+        for (int i = start; i + 3 < limit; ++i) {
+            if (buffer.get(i) == '\r' && buffer.get(i + 1) == '\n'
+                    && buffer.get(i + 2) == '\r' && buffer.get(i + 3) == '\n') {
+                return i + 4;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean matchesIgnoreCase(final ByteBuffer buffer,
+                                             final int from,
+                                             final int to,
+                                             final byte[] lowerCasePrefix) {
+        if (to - from < lowerCasePrefix.length) {
+            return false;
+        }
+        for (int i = 0; i < lowerCasePrefix.length; ++i) {
+            if ((buffer.get(from + i) | 0x20) != (lowerCasePrefix[i] | 0x20)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean containsIgnoreCase(final ByteBuffer buffer,
+                                              final int from,
+                                              final int to,
+                                              final byte[] lowerCaseValue) {
+        for (int i = from; i + lowerCaseValue.length <= to; ++i) {
+            if (matchesIgnoreCase(buffer, i, to, lowerCaseValue)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int parseInt(final ByteBuffer buffer, final int from, final int to) throws IOException {
+        int value = 0;
+        boolean digits = false;
+        for (int i = from; i < to; ++i) {
+            final byte b = buffer.get(i);
+            if (b >= '0' && b <= '9') {
+                value = value * 10 + (b - '0');
+                digits = true;
+            } else if (b != ' ' && b != '\t') {
+                throw new IOException("Malformed number in header");
+            }
+        }
+        if (!digits) {
+            throw new IOException("Malformed number in header");
+        }
+        return value;
+    }
+}
@@ -1,28 +1,119 @@
 package com.example.client.model;
 
-import java.util.Optional;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
 
+/**
+ * Immutable request description, adapters map it to library request.
+ * <p>
+ * Body is a slice of caller array, it is never copied by request itself,
+ * so caller must not modify it while request is in use.
+ * Getters don't allocate, except {@link #getBodyBuffer()} and {@link #getBodyBytes()} of partial slice.
+ */
 public class ClientRequest {
 
     private final String url;
-
+    private final RequestMethod method;
+    private final List<Header> headers;
     private final byte[] body;
+    private final int bodyOffset;
+    private final int bodyLength;
 
+    /**
+     * {@code POST} of the whole array if body is present, {@code GET} otherwise
+     */
     public ClientRequest(final String url,
                          final byte[] body) {
-        this.url = url;
+        this(
+                url,
+                body != null ? RequestMethod.POST : RequestMethod.GET,
+                List.of(),
+                body,
+                0,
+                body != null ? body.length : 0
+        );
+    }
+
+    /**
+     * @param body request body array, {@code null} for request without body
+     */
+    public ClientRequest(final String url,
+                         final RequestMethod method,
+                         final List<Header> headers,
+                         final byte[] body,
+                         final int bodyOffset,
+                         final int bodyLength) {
+        this.url = Objects.requireNonNull(url, "url");
+        this.method = Objects.requireNonNull(method, "method");
+        this.headers = List.copyOf(headers);
+        if (body != null) {
+            Objects.checkFromIndexSize(bodyOffset, bodyLength, body.length);
+        } else if (bodyOffset != 0 || bodyLength != 0) {
+            throw new IllegalArgumentException("Request without body must have empty body slice");
+        }
         this.body = body;
+        this.bodyOffset = bodyOffset;
+        this.bodyLength = bodyLength;
     }
 
     public String getUrl() {
         return url;
     }
 
-    public String getMethod() {
-        return body != null ? "POST" : "GET";
+    public RequestMethod getMethod() {
+        return method;
+    }
+
+    public List<Header> getHeaders() {
+        return headers;
+    }
+
+    public boolean hasBody() {
+        return body != null;
+    }
+
+    /**
+     * @return body backing array, {@code null} if request has no body
+     */
+    public byte[] getBody() {
+        return body;
+    }
+
+    public int getBodyOffset() {
+        return bodyOffset;
+    }
+
+    public int getBodyLength() {
+        return bodyLength;
+    }
+
+    /**
+     * @return whether body slice covers the whole backing array
+     */
+    public boolean isWholeBody() {
+        return body != null && bodyOffset == 0 && bodyLength == body.length;
+    }
+
+    /**
+     * @return read-only buffer over body slice, {@code null} if request has no body
+     */
+    public ByteBuffer getBodyBuffer() {
+        return body != null
+                ? ByteBuffer.wrap(body, bodyOffset, bodyLength).slice().asReadOnlyBuffer()
+                : null;
     }
 
-    public Optional<byte[]> getBody() {
-        return Optional.ofNullable(body);
+    /**
+     * For libraries accepting whole arrays only.
+     *
+     * @return backing array if slice covers it, copy of slice otherwise, {@code null} if request has no body
+     */
+    public byte[] getBodyBytes() {
+        if (body == null || isWholeBody()) {
+            return body;
+        }
+        return Arrays.copyOfRange(body, bodyOffset, bodyOffset + bodyLength);
     }
 }
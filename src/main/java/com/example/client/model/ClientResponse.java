@@ -1,20 +1,65 @@
 package com.example.client.model;
 
+/**
+ * Response status and content slice.
+ * <p>
+ * Mutable holder, so that caller may keep one instance per in-flight request (or per consumer thread)
+ * and let adapters fill it in place with {@link com.example.client.ClientAdapter#mapResponse(Object, ClientResponse)}
+ * instead of allocating response per request. Holder is not thread-safe, it must be handed over
+ * between threads with happens-before (e.g. through completion queue).
+ */
 public class ClientResponse {
 
-    private final int status;
-    private final byte[] content;
+    private int status;
+    private byte[] content;
+    private int contentOffset;
+    private int contentLength;
+
+    public ClientResponse() {
+    }
 
     public ClientResponse(final int status, final byte[] content) {
+        set(status, content);
+    }
+
+    /**
+     * Fills holder with status and whole content array, {@code null} content for empty or streamed body
+     */
+    public ClientResponse set(final int status, final byte[] content) {
+        return set(status, content, 0, content != null ? content.length : 0);
+    }
+
+    public ClientResponse set(final int status, final byte[] content, final int offset, final int length) {
         this.status = status;
         this.content = content;
+        this.contentOffset = offset;
+        this.contentLength = length;
+        return this;
+    }
+
+    /**
+     * Clears holder before it is returned to pool, so it doesn't retain content array
+     */
+    public ClientResponse reset() {
+        return set(0, null, 0, 0);
     }
 
     public int getStatus() {
         return status;
     }
 
+    /**
+     * @return content backing array, may be {@code null} for empty or streamed body
+     */
     public byte[] getContent() {
         return content;
     }
+
+    public int getContentOffset() {
+        return contentOffset;
+    }
+
+    public int getContentLength() {
+        return contentLength;
+    }
 }
@@ -0,0 +1,38 @@
+package com.example.client.model;
+
+import java.util.Objects;
+
+public final class Header {
+
+    private final String name;
+    private final String value;
+
+    public Header(final String name, final String value) {
+        this.name = Objects.requireNonNull(name, "name");
+        this.value = Objects.requireNonNull(value, "value");
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        return this == other
+                || other instanceof Header header && name.equals(header.name) && value.equals(header.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * name.hashCode() + value.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return name + ": " + value;
+    }
+}
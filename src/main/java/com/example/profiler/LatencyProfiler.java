@@ -0,0 +1,89 @@
+package com.example.profiler;
+
+import java.util.Collection;
+import java.util.List;
+
+import com.example.benchmark.utils.latency.LatencyHistogram;
+import com.example.benchmark.utils.latency.LatencyRecorder;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+import org.openjdk.jmh.runner.IterationType;
+
+/**
+ * Reports latency recorded by {@link LatencyRecorder} as secondary results.
+ * <p>
+ * Count and max are reported per iteration. Percentiles of iteration histograms can't be aggregated,
+ * so measurement iterations are merged into trial histogram and its percentiles are reported
+ * once, after the last measurement iteration.
+ */
+public class LatencyProfiler implements InternalProfiler {
+
+    private static final String PREFIX = "latency.";
+    private static final String UNIT = "us";
+    private static final double NANOS_IN_UNIT = 1_000.0;
+
+    private final LatencyHistogram trial = new LatencyHistogram();
+    private int measuredIterations;
+
+    public LatencyProfiler(final String initLine) {
+        // no options
+    }
+
+    @Override
+    public void beforeIteration(final BenchmarkParams benchmarkParams,
+                                final IterationParams iterationParams) {
+        if (iterationParams.getType() == IterationType.WARMUP) {
+            trial.reset();
+            measuredIterations = 0;
+        }
+        LatencyRecorder.reset();
+    }
+
+    @Override
+    public Collection<? extends Result> afterIteration(final BenchmarkParams benchmarkParams,
+                                                       final IterationParams iterationParams,
+                                                       final IterationResult result) {
+        final var histogram = LatencyRecorder.snapshot();
+        final var count = new ScalarResult(
+                PREFIX + "count", histogram.getTotalCount(), "ops", AggregationPolicy.SUM
+        );
+        final var max = new ScalarResult(
+                PREFIX + "max", histogram.getMaxValue() / NANOS_IN_UNIT, UNIT, AggregationPolicy.MAX
+        );
+        if (iterationParams.getType() != IterationType.MEASUREMENT) {
+            return List.of(count, max);
+        }
+        trial.add(histogram);
+        if (++measuredIterations < iterationParams.getCount()) {
+            return List.of(count, max);
+        }
+        final var results = List.of(
+                count,
+                percentile("p50", trial.getValueAtPercentile(50.0)),
+                percentile("p90", trial.getValueAtPercentile(90.0)),
+                percentile("p99", trial.getValueAtPercentile(99.0)),
+                percentile("p99.9", trial.getValueAtPercentile(99.9)),
+                max
+        );
+        trial.reset();
+        measuredIterations = 0;
+        return results;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Latency percentiles of requests recorded by LatencyRecorder";
+    }
+
+    /**
+     * Reported by the last measurement iteration only, so averaging applies across forks
+     */
+    private static ScalarResult percentile(final String name, final long valueNanos) {
+        return new ScalarResult(PREFIX + name, valueNanos / NANOS_IN_UNIT, UNIT, AggregationPolicy.AVG);
+    }
+}
@@ -0,0 +1,463 @@
+package com.example.server;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Minimal in-process HTTP/1.1 server used as a benchmark target instead of external nginx.
+ * <p>
+ * Answers every request with the same pre-encoded {@code 200 OK} response
+ * ({@code You are welcome} body by default), regardless of method and path.
+ * Connections are keep-alive, pipelined requests are answered with a single gathering write.
+ * One acceptor thread hands connections round-robin to {@code workers} selector threads,
+ * each of them owns its connections exclusively, so request path has no locks and no allocation.
+ * Server may listen on several ports (see {@link #listen(int)}), all of them served by the same workers,
+ * so clients see every port as a separate route.
+ * <p>
+ * Request bodies are skipped using {@code Content-Length}, chunked requests are not supported.
+ */
+public class EmbeddedHttpServer implements AutoCloseable {
+
+    public static final String DEFAULT_BODY = "You are welcome";
+    public static final int DEFAULT_RESPONSE_SIZE = -1;
+
+    private static final int READ_BUFFER_SIZE = 8192;
+    private static final int MAX_WRITE_BATCH = 16;
+    private static final byte[] CONTENT_LENGTH = "content-length:".getBytes(StandardCharsets.US_ASCII);
+
+    private final List<ServerSocketChannel> serverChannels = new ArrayList<>();
+    private final Queue<ServerSocketChannel> acceptorRegistrations = new ConcurrentLinkedQueue<>();
+    private final Selector acceptSelector;
+    private final ByteBuffer response;
+    private final Worker[] workers;
+    private final Thread acceptor;
+    /**
+     * Port the server was started on, 0 for ephemeral one
+     */
+    private final int basePort;
+    private int nextWorker;
+    private volatile boolean running = true;
+
+    /**
+     * Starts server on loopback interface.
+     *
+     * @param port         port to listen, 0 for ephemeral one
+     * @param workers      selector threads count
+     * @param responseSize response body size in bytes, negative for default {@code You are welcome} body
+     */
+    public EmbeddedHttpServer(final int port, final int workers, final int responseSize) {
+        if (workers <= 0) {
+            throw new IllegalArgumentException("Workers count must be positive, but found " + workers);
+        }
+        this.response = encodeResponse(responseSize);
+        this.basePort = port;
+        try {
+            acceptSelector = Selector.open();
+            serverChannels.add(openServerChannel(port));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start embedded server", e);
+        }
+        acceptorRegistrations.addAll(serverChannels);
+
+        this.workers = new Worker[workers];
+        for (int i = 0; i < workers; ++i) {
+            this.workers[i] = new Worker(i);
+            this.workers[i].start();
+        }
+        acceptor = new Thread(this::acceptLoop, "embedded-server-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public EmbeddedHttpServer(final int workers, final int responseSize) {
+        this(0, workers, responseSize);
+    }
+
+    /**
+     * @return the first port server listens on
+     */
+    public synchronized int getPort() {
+        return serverChannels.get(0).socket().getLocalPort();
+    }
+
+    public String getAddress() {
+        return address(getPort());
+    }
+
+    /**
+     * Makes server listen on at least {@code ports} ports. Missing ones follow the port server was started on,
+     * or are ephemeral if it was started on ephemeral port.
+     *
+     * @return addresses of the first {@code ports} ports, the first one is {@link #getAddress()}
+     */
+    public synchronized List<String> listen(final int ports) {
+        if (ports <= 0) {
+            throw new IllegalArgumentException("Ports count must be positive, but found " + ports);
+        }
+        try {
+            while (serverChannels.size() < ports) {
+                final var channel = openServerChannel(basePort == 0 ? 0 : basePort + serverChannels.size());
+                serverChannels.add(channel);
+                acceptorRegistrations.add(channel);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open " + ports + " embedded server ports", e);
+        }
+        acceptSelector.wakeup();
+        final var addresses = new ArrayList<String>(ports);
+        for (int i = 0; i < ports; ++i) {
+            addresses.add(address(serverChannels.get(i).socket().getLocalPort()));
+        }
+        return addresses;
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        acceptSelector.close();
+        synchronized (this) {
+            for (final var serverChannel : serverChannels) {
+                serverChannel.close();
+            }
+        }
+        for (final var worker : workers) {
+            worker.selector.close();
+        }
+    }
+
+    private static ServerSocketChannel openServerChannel(final int port) throws IOException {
+        final var channel = ServerSocketChannel.open();
+        try {
+            channel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+            channel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 4096);
+            channel.configureBlocking(false);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return channel;
+    }
+
+    private static String address(final int port) {
+        return InetAddress.getLoopbackAddress().getHostAddress() + ":" + port;
+    }
+
+    private void acceptLoop() {
+        try {
+            while (running) {
+                // registrations go first, ports opened by constructor come with no wakeup
+                ServerSocketChannel serverChannel;
+                while ((serverChannel = acceptorRegistrations.poll()) != null) {
+                    try {
+                        serverChannel.register(acceptSelector, SelectionKey.OP_ACCEPT);
+                    } catch (ClosedChannelException e) {
+                        // server closed
+                    }
+                }
+                acceptSelector.select(this::accept);
+            }
+        } catch (ClosedSelectorException e) {
+            // server closed
+        } catch (IOException e) {
+            System.err.println("Embedded server acceptor failed: " + e.getMessage());
+        }
+    }
+
+    private void accept(final SelectionKey key) {
+        final var serverChannel = (ServerSocketChannel) key.channel();
+        try {
+            SocketChannel channel;
+            while ((channel = serverChannel.accept()) != null) {
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                workers[nextWorker].register(channel);
+                nextWorker = (nextWorker + 1) % workers.length;
+            }
+        } catch (ClosedChannelException e) {
+            key.cancel();
+        } catch (IOException e) {
+            if (running) {
+                System.err.println("Embedded server failed to accept connection: " + e.getMessage());
+            }
+        }
+    }
+
+    private static ByteBuffer encodeResponse(final int responseSize) {
+        final byte[] body;
+        if (responseSize < 0) {
+            body = DEFAULT_BODY.getBytes(StandardCharsets.US_ASCII);
+        } else {
+            body = new byte[responseSize];
+            Arrays.fill(body, (byte) 'x');
+        }
+        final byte[] head = ("HTTP/1.1 200 OK\r\n"
+                + "Content-Type: text/plain\r\n"
+                + "Content-Length: " + body.length + "\r\n"
+                + "Connection: keep-alive\r\n"
+                + "\r\n").getBytes(StandardCharsets.US_ASCII);
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(head.length + body.length);
+        buffer.put(head).put(body).flip();
+        return buffer.asReadOnlyBuffer();
+    }
+
+    private final class Worker extends Thread {
+
+        private final Selector selector;
+        private final Queue<SocketChannel> registrations = new ConcurrentLinkedQueue<>();
+
+        private Worker(final int index) {
+            super("embedded-server-worker-" + index);
+            setDaemon(true);
+            try {
+                selector = Selector.open();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void register(final SocketChannel channel) {
+            registrations.add(channel);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    selector.select(this::process);
+                    SocketChannel channel;
+                    while ((channel = registrations.poll()) != null) {
+                        try {
+                            channel.register(selector, SelectionKey.OP_READ, new Connection(channel));
+                        } catch (ClosedChannelException e) {
+                            // client gone before registration
+                        }
+                    }
+                }
+            } catch (ClosedSelectorException e) {
+                // server closed
+            } catch (IOException e) {
+                System.err.println("Embedded server worker failed: " + e.getMessage());
+            }
+        }
+
+        private void process(final SelectionKey key) {
+            final var connection = (Connection) key.attachment();
+            try {
+                if (key.isWritable()) {
+                    connection.flush(key);
+                }
+                if (key.isValid() && key.isReadable()) {
+                    connection.read(key);
+                }
+            } catch (IOException e) {
+                connection.close(key);
+            }
+        }
+    }
+
+    private final class Connection {
+
+        private final SocketChannel channel;
+        private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+        private final ByteBuffer[] out = new ByteBuffer[MAX_WRITE_BATCH];
+        private int outOffset;
+        private int outCount;
+        /**
+         * Requests read completely but not yet answered
+         */
+        private long pendingResponses;
+        private long bodyRemaining;
+        /**
+         * Buffer position from which header terminator search continues
+         */
+        private int scanFrom;
+
+        private Connection(final SocketChannel channel) {
+            this.channel = channel;
+            for (int i = 0; i < out.length; ++i) {
+                out[i] = response.duplicate();
+            }
+        }
+
+        private void read(final SelectionKey key) throws IOException {
+            final int read = channel.read(readBuffer);
+            if (read < 0) {
+                close(key);
+                return;
+            }
+            readBuffer.flip();
+            if (!parse()) {
+                close(key);
+                return;
+            }
+            readBuffer.compact();
+            if (pendingResponses > 0 && outCount == 0) {
+                flush(key);
+            }
+        }
+
+        /**
+         * Consumes all complete requests from read buffer
+         *
+         * @return false if request can't be handled and connection must be closed
+         */
+        private boolean parse() {
+            while (readBuffer.hasRemaining()) {
+                if (bodyRemaining > 0) {
+                    final int skip = (int) Math.min(bodyRemaining, readBuffer.remaining());
+                    readBuffer.position(readBuffer.position() + skip);
+                    bodyRemaining -= skip;
+                    if (bodyRemaining == 0) {
+                        ++pendingResponses;
+                    }
+                    continue;
+                }
+
+                final int start = readBuffer.position();
+                final int headersEnd = findHeadersEnd(start);
+                if (headersEnd < 0) {
+                    // incomplete headers, the whole buffer filled means headers are too large
+                    return !(start == 0 && readBuffer.limit() == readBuffer.capacity());
+                }
+                final long contentLength = parseContentLength(start, headersEnd);
+                if (contentLength < 0) {
+                    return false;
+                }
+                readBuffer.position(headersEnd);
+                scanFrom = 0;
+                if (contentLength == 0) {
+                    ++pendingResponses;
+                } else {
+                    bodyRemaining = contentLength;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @return position right after {@code \r\n\r\n}, or -1 if headers are incomplete
+         */
+        private int findHeadersEnd(final int start) {
+            final int limit = readBuffer.limit();
+            for (int i = Math.max(start, start + scanFrom - 3); i + 3 < limit; ++i) {
+                if (readBuffer.get(i) == '\r' && readBuffer.get(i + 1) == '\n'
+                        && readBuffer.get(i + 2) == '\r' && readBuffer.get(i + 3) == '\n') {
+                    return i + 4;
+                }
+            }
+            scanFrom = limit - start;
+            return -1;
+        }
+
+        /**
+         * @return value of Content-Length header, 0 if absent, -1 if malformed
+         */
+        private long parseContentLength(final int start, final int end) {
+            int lineStart = start;
+            for (int i = start; i + 1 < end; ++i) {
+                if (readBuffer.get(i) != '\r' || readBuffer.get(i + 1) != '\n') {
+                    continue;
+                }
+                if (matchesIgnoreCase(lineStart, i, CONTENT_LENGTH)) {
+                    long value = 0;
+                    boolean digits = false;
+                    for (int j = lineStart + CONTENT_LENGTH.length; j < i; ++j) {
+                        final byte b = readBuffer.get(j);
+                        if (b >= '0' && b <= '9') {
+                            value = value * 10 + (b - '0');
+                            digits = true;
+                        } else if (b != ' ' && b != '\t') {
+                            return -1;
+                        }
+                    }
+                    return digits ? value : -1;
+                }
+                lineStart = i + 2;
+            }
+            return 0;
+        }
+
+        private boolean matchesIgnoreCase(final int from, final int to, final byte[] lowerCasePrefix) {
+            if (to - from < lowerCasePrefix.length) {
+                return false;
+            }
+            for (int i = 0; i < lowerCasePrefix.length; ++i) {
+                if ((readBuffer.get(from + i) | 0x20) != lowerCasePrefix[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void flush(final SelectionKey key) throws IOException {
+            while (true) {
+                if (outCount == 0) {
+                    if (pendingResponses == 0) {
+                        break;
+                    }
+                    final int batch = (int) Math.min(pendingResponses, MAX_WRITE_BATCH);
+                    for (int i = 0; i < batch; ++i) {
+                        out[i].clear();
+                    }
+                    outOffset = 0;
+                    outCount = batch;
+                    pendingResponses -= batch;
+                }
+                channel.write(out, outOffset, outCount);
+                while (outCount > 0 && !out[outOffset].hasRemaining()) {
+                    ++outOffset;
+                    --outCount;
+                }
+                if (outCount > 0) {
+                    // socket buffer is full, continue when writable
+                    key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    return;
+                }
+            }
+            if ((key.interestOps() & SelectionKey.OP_WRITE) != 0) {
+                key.interestOps(SelectionKey.OP_READ);
+            }
+        }
+
+        private void close(final SelectionKey key) {
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+
+    /**
+     * Runs server standalone, e.g. pinned to isolated cores with {@code taskset}.
+     * Arguments: {@code [port] [workers] [responseSize] [ports]},
+     * server listens on {@code ports} consecutive ports starting from {@code port}.
+     */
+    public static void main(String[] args) throws Exception {
+        final int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        final int workers = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        final int responseSize = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_RESPONSE_SIZE;
+        final int ports = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+        final var server = new EmbeddedHttpServer(port, workers, responseSize);
+        System.out.println("Embedded server listens on " + String.join(", ", server.listen(ports)));
+        Thread.currentThread().join();
+    }
+}